@@ -0,0 +1,125 @@
+package com.aaron.vocabulary.adapter;
+
+import java.util.Arrays;
+
+/**
+ * Minimal change set between two filters of the same vocabulary list, as ranges of removed and inserted rows. Both filters are sorted indexes of the
+ * list, so they are merged in a single pass instead of being compared row by row.
+ */
+final class FilterDiff
+{
+    private static final int REMOVED = 0;
+    private static final int INSERTED = 1;
+
+    /**
+     * Receives the changes in order, each position is in the rows as changed by the previous ones.
+     */
+    interface Callback
+    {
+        void onRemoved(int position, int count);
+
+        void onInserted(int position, int count);
+    }
+
+    // Three ints per change: REMOVED or INSERTED, position and count.
+    private final int[] changes;
+
+    private FilterDiff(int[] changes)
+    {
+        this.changes = changes;
+    }
+
+    /**
+     * Computes the changes from the old rows to the new rows.
+     *
+     * @param oldIndexes the indexes of the old rows in the list, null for the whole list
+     * @param newIndexes the indexes of the new rows in the list, null for the whole list
+     * @param listSize   the size of the list
+     * @return FilterDiff
+     */
+    static FilterDiff between(int[] oldIndexes, int[] newIndexes, int listSize)
+    {
+        int oldSize = oldIndexes == null ? listSize : oldIndexes.length;
+        int newSize = newIndexes == null ? listSize : newIndexes.length;
+        int[] changes = new int[12];
+        int changesLength = 0;
+        int oldPosition = 0;
+        int newPosition = 0;
+
+        while(oldPosition < oldSize || newPosition < newSize)
+        {
+            int oldIndex = oldPosition < oldSize ? indexAt(oldIndexes, oldPosition) : Integer.MAX_VALUE;
+            int newIndex = newPosition < newSize ? indexAt(newIndexes, newPosition) : Integer.MAX_VALUE;
+
+            if(oldIndex == newIndex)
+            {
+                oldPosition++;
+                newPosition++;
+                continue;
+            }
+
+            // Rows before newPosition are already the new rows, a change at this point is at newPosition.
+            int type = oldIndex < newIndex ? REMOVED : INSERTED;
+            boolean isSameRange = changesLength > 0 && changes[changesLength - 3] == type &&
+                    changes[changesLength - 2] + (type == INSERTED ? changes[changesLength - 1] : 0) == newPosition;
+
+            if(isSameRange)
+            {
+                changes[changesLength - 1]++;
+            }
+            else
+            {
+                if(changesLength == changes.length)
+                {
+                    changes = Arrays.copyOf(changes, changesLength * 2);
+                }
+
+                changes[changesLength++] = type;
+                changes[changesLength++] = newPosition;
+                changes[changesLength++] = 1;
+            }
+
+            if(type == REMOVED)
+            {
+                oldPosition++;
+            }
+            else
+            {
+                newPosition++;
+            }
+        }
+
+        return new FilterDiff(Arrays.copyOf(changes, changesLength));
+    }
+
+    private static int indexAt(int[] indexes, int position)
+    {
+        return indexes == null ? position : indexes[position];
+    }
+
+    /**
+     * Returns true if both filters show the same rows.
+     */
+    boolean isEmpty()
+    {
+        return this.changes.length == 0;
+    }
+
+    /**
+     * Gives the changes to the callback, in order.
+     */
+    void dispatchTo(Callback callback)
+    {
+        for(int i = 0; i < this.changes.length; i += 3)
+        {
+            if(this.changes[i] == REMOVED)
+            {
+                callback.onRemoved(this.changes[i + 1], this.changes[i + 2]);
+            }
+            else
+            {
+                callback.onInserted(this.changes[i + 1], this.changes[i + 2]);
+            }
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.aaron.vocabulary.adapter;
 
 import android.content.Context;
-import android.support.annotation.NonNull;
+import android.graphics.Typeface;
+import android.support.v7.widget.RecyclerView;
+import android.util.DisplayMetrics;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.TextView;
 
 import com.aaron.vocabulary.R;
@@ -14,23 +15,47 @@ import com.aaron.vocabulary.bean.SearchType;
 import com.aaron.vocabulary.bean.Settings;
 import com.aaron.vocabulary.bean.Vocabulary;
 import com.aaron.vocabulary.model.LogsManager;
-
-import java.util.ArrayList;
-import java.util.Arrays;
+import com.aaron.vocabulary.model.VocabularyList;
+import com.aaron.vocabulary.model.VocabularySearchIndex;
 
 /**
- * ListView adapter for vocabulary list.
+ * RecyclerView adapter for vocabulary list. The given list is displayed as is, without being copied, so it can be a list that is lazily loaded from the
+ * database. Its words are read by index, no Vocabulary is created to display a row. A filter only keeps the indexes of the matching vocabularies.
+ * Rows have stable ids, the ids of the vocabularies in the database, so that their views are kept when the list is filtered or replaced.
  */
-public class VocabularyAdapter extends ArrayAdapter<Vocabulary>
+public class VocabularyAdapter extends RecyclerView.Adapter<VocabularyAdapter.ViewHolder>
 {
     private static final String CLASS_NAME = VocabularyAdapter.class.getSimpleName();
-    private static final String ENGLISH_WORD_SEPARATOR = " / ";
 
-    private ArrayList<Vocabulary> vocabularyListTemp;
-    private Settings settings;
+    private Context context;
+    // Volatile, also read by search() on a background thread.
+    private volatile VocabularyList vocabularyList;
+    // Indexes in vocabularyList of the vocabularies matching the filter, null if not filtered. Volatile, also read by search().
+    private volatile int[] matchedIndexes;
+    // Narrowed by the next filter if its searched text starts with the same text.
+    private volatile VocabularySearchIndex.Result lastSearchResult;
+    // Resolved from the settings once, applied to a row only if it was bound with another style.
+    private Typeface typeface;
+    private float textSizePx;
+
+    // Only the removed and inserted rows are notified, the other rows keep their views.
+    private final FilterDiff.Callback diffCallback = new FilterDiff.Callback()
+    {
+        @Override
+        public void onRemoved(int position, int count)
+        {
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onInserted(int position, int count)
+        {
+            notifyItemRangeInserted(position, count);
+        }
+    };
 
     /**
-     * Default constructor. 0 is passed to the resource id, because we will be creating our own custom layout.
+     * Default constructor.
      *
      * @param context
      *            the current context
@@ -39,144 +64,244 @@ public class VocabularyAdapter extends ArrayAdapter<Vocabulary>
      * @param settings
      *            the current settings
      */
-    public VocabularyAdapter(final Context context, final ArrayList<Vocabulary> vocabularyList, final Settings settings)
+    public VocabularyAdapter(final Context context, final VocabularyList vocabularyList, final Settings settings)
     {
-        super(context, 0, vocabularyList);
+        this.context = context;
+        this.vocabularyList = vocabularyList;
 
-        this.vocabularyListTemp = new ArrayList<>(vocabularyList);
-        this.settings = settings;
+        setHasStableIds(true);
+        setSettings(settings);
     }
 
     /**
-     * Populates the ListView.
+     * Resolves the typeface and text size of the rows from the settings. The displayed rows are only bound again if they changed.
+     *
+     * @param settings
+     *            the current settings
      */
-    @NonNull
-    @Override
-    public View getView(int position, View convertView, @NonNull ViewGroup parent)
+    public void setSettings(Settings settings)
     {
-        ViewHolder holder;
-        View listRowView;
+        Typeface newTypeface = settings.getTypeface();
+        DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
+        float newTextSizePx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, settings.getFontSize(), displayMetrics);
+        boolean isStyleChanged = this.typeface != null && (newTypeface != this.typeface || newTextSizePx != this.textSizePx);
 
-        if(convertView == null)
-        {
-            listRowView = LayoutInflater.from(getContext()).inflate(R.layout.fragment_vocabulary_list_row, parent, false);
-
-            holder = new ViewHolder();
-            holder.englishText = listRowView.findViewById(R.id.text_english_language);
-            holder.foreignText = listRowView.findViewById(R.id.text_foreign_language);
+        this.typeface = newTypeface;
+        this.textSizePx = newTextSizePx;
 
-            listRowView.setTag(holder);
-        }
-        else
+        if(isStyleChanged)
         {
-            listRowView = convertView;
-            holder = (ViewHolder) convertView.getTag();
+            notifyDataSetChanged();
         }
+    }
+
+    @Override
+    public int getItemCount()
+    {
+        return matchedIndexes == null ? vocabularyList.size() : matchedIndexes.length;
+    }
+
+    /**
+     * Creates a new Vocabulary of the given position. Prefer {@link #onBindViewHolder(ViewHolder, int)}, which reads the words without creating one.
+     */
+    public Vocabulary getItem(int position)
+    {
+        return vocabularyList.get(toListIndex(position));
+    }
+
+    private int toListIndex(int position)
+    {
+        return matchedIndexes == null ? position : matchedIndexes[position];
+    }
 
-        Vocabulary vocabulary = getItem(position);
-        holder.setVocabularyView(vocabulary, this.settings);
+    @Override
+    public long getItemId(int position)
+    {
+        return vocabularyList.getId(toListIndex(position));
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType)
+    {
+        View listRowView = LayoutInflater.from(context).inflate(R.layout.fragment_vocabulary_list_row, parent, false);
 
-        return listRowView;
+        return new ViewHolder(listRowView);
     }
 
     /**
-     * Filters the vocabulary list in the adapter with the given searched text. Only shows english vocabularies that starts with the searched text.
+     * Populates the row.
+     */
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position)
+    {
+        int index = toListIndex(position);
+        holder.setVocabularyView(vocabularyList.getEnglishWord(index), vocabularyList.getForeignWord(index), this.typeface, this.textSizePx);
+    }
+
+    /**
+     * Filters the vocabulary list in the adapter with the given searched text. Only shows vocabularies with an english sub-word, or a foreign word,
+     * that starts with the searched text. Searched through the index of the list, built on the first search.
      *
      * @param searched
      *            the searched word
-     * 
+     *
      * @param searchType
      *            the language to search/filter
      */
     public void filter(final String searched, SearchType searchType)
     {
-        clear();
+        applyFilter(search(searched, searchType));
+    }
+
+    /**
+     * Searches the vocabulary list without changing what is displayed, can be called on any thread. Also computes the changes from the displayed
+     * vocabularies, so that only the search thread pays for it. Apply the result with {@link #applyFilter(FilterResult)}.
+     *
+     * @param searched
+     *            the searched word
+     *
+     * @param searchType
+     *            the language to search/filter
+     * @return the vocabularies matching the searched text
+     */
+    public FilterResult search(final String searched, SearchType searchType)
+    {
+        VocabularyList list = vocabularyList;
+        int[] displayedIndexes = matchedIndexes;
         String searchedText = searched.trim();
+        VocabularySearchIndex.Result searchResult = null;
 
-        if(searchedText.length() == 0)
+        if(searchedText.length() > 0)
         {
-            addAll(this.vocabularyListTemp);
+            searchResult = list.getSearchIndex().search(searchedText, searchType, lastSearchResult);
         }
-        else
-        {
-            boolean isEnglish = SearchType.ENGLISH.equals(searchType);
 
-            for(Vocabulary vocabulary: vocabularyListTemp)
-            {
-                if(isEnglish)
-                {
-                    filterEnglish(vocabulary, searchedText);
-                }
-                else
-                {
-                    filterForeign(vocabulary, searchedText);
-                }
-            }
-        }
+        int[] newIndexes = searchResult == null ? null : searchResult.getIndexes();
+        FilterDiff diff = FilterDiff.between(displayedIndexes, newIndexes, list.size());
 
-        LogsManager.log(CLASS_NAME, "filter", "New list size = " + getCount());
+        return new FilterResult(list, searchResult, displayedIndexes, diff);
     }
 
-    private void filterEnglish(Vocabulary vocabulary, String searchedText)
+    /**
+     * Displays the vocabularies of the result at once, only notifying the ranges of removed and inserted rows. Nothing is notified if the same
+     * vocabularies are displayed.
+     * Ignored if the list was updated since the search.
+     *
+     * @param filterResult
+     *            the result of {@link #search(String, SearchType)}
+     */
+    public void applyFilter(FilterResult filterResult)
     {
-        String englishWord = vocabulary.getEnglishWord();
-        boolean searchedTextFound = Arrays.stream(englishWord.split(ENGLISH_WORD_SEPARATOR)).anyMatch(word -> word.startsWith(searchedText));
-        if(searchedTextFound)
+        if(filterResult.list != vocabularyList)
+        {
+            return;
+        }
+
+        // The diff is from the vocabularies displayed at the time of the search, another filter may have been applied since.
+        boolean isDiffValid = filterResult.previousIndexes == matchedIndexes;
+
+        lastSearchResult = filterResult.searchResult;
+        matchedIndexes = filterResult.searchResult == null ? null : filterResult.searchResult.getIndexes();
+
+        if(isDiffValid)
+        {
+            filterResult.diff.dispatchTo(this.diffCallback);
+        }
+        else
         {
-            add(vocabulary);
+            notifyDataSetChanged();
         }
+
+        LogsManager.log(CLASS_NAME, "applyFilter", "New list size = " + getItemCount() + " changed=" + !filterResult.diff.isEmpty());
     }
 
-    private void filterForeign(Vocabulary vocabulary, String searchedText)
+    /**
+     * Displays the whole list again, without searching it or computing the changes from the filtered rows. Can be called on the main thread.
+     */
+    public void clearFilter()
     {
-        String foreignWord = vocabulary.getForeignWord();
-        if(foreignWord.startsWith(searchedText))
+        if(matchedIndexes != null)
         {
-            add(vocabulary);
+            matchedIndexes = null;
+            lastSearchResult = null;
+
+            notifyDataSetChanged();
         }
     }
 
     /**
-     * Updates the vocabulary list.
+     * Updates the vocabulary list. Any filter is cleared.
      *
      * @param list
      *            the list to replace the current
      */
-    public void update(ArrayList<Vocabulary> list)
+    public void update(VocabularyList list)
     {
         if(list != null)
         {
-            // Store this new list into temp, because the list parameter shares the same reference as the Adapter's list.
-            // Thus, calling clear() will clear out both the adapter's list and the new list.
-            ArrayList<Vocabulary> tmpList = new ArrayList<>(list);
-            clear();
+            vocabularyList = list;
+            matchedIndexes = null;
+            lastSearchResult = null;
 
-            // If user deletes vocabulary list in AboutFragment
-            if(!tmpList.isEmpty())
-            {
-                addAll(tmpList);
-                vocabularyListTemp.clear();
-                vocabularyListTemp.addAll(tmpList);
-            }
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Vocabularies matched by a search of a list, not yet displayed.
+     */
+    public static final class FilterResult
+    {
+        private final VocabularyList list;
+        // Null if nothing was searched.
+        private final VocabularySearchIndex.Result searchResult;
+        private final int[] previousIndexes;
+        private final FilterDiff diff;
+
+        private FilterResult(VocabularyList list, VocabularySearchIndex.Result searchResult, int[] previousIndexes, FilterDiff diff)
+        {
+            this.list = list;
+            this.searchResult = searchResult;
+            this.previousIndexes = previousIndexes;
+            this.diff = diff;
         }
     }
 
     /**
-     * Helper class for storing view values. Ensures findViewById() will only be called ones if convertView is not null.
+     * Helper class for storing view values. Ensures findViewById() will only be called once per row view.
      */
-    private static class ViewHolder
+    public static class ViewHolder extends RecyclerView.ViewHolder
     {
-        private TextView englishText;
-        private TextView foreignText;
+        private final TextView englishText;
+        private final TextView foreignText;
+        // The style last applied to the text views.
+        private Typeface appliedTypeface;
+        private float appliedTextSizePx;
 
-        private void setVocabularyView(Vocabulary vocabulary, Settings settings)
+        private ViewHolder(View listRowView)
         {
-            this.englishText.setText(vocabulary.getEnglishWord());
-            this.englishText.setTextSize(TypedValue.COMPLEX_UNIT_SP, settings.getFontSize());
-            this.englishText.setTypeface(settings.getTypeface());
-            this.foreignText.setText(vocabulary.getForeignWord());
-            this.foreignText.setTextSize(TypedValue.COMPLEX_UNIT_SP, settings.getFontSize());
-            this.foreignText.setTypeface(settings.getTypeface());
+            super(listRowView);
+
+            this.englishText = listRowView.findViewById(R.id.text_english_language);
+            this.foreignText = listRowView.findViewById(R.id.text_foreign_language);
+        }
+
+        private void setVocabularyView(String englishWord, String foreignWord, Typeface typeface, float textSizePx)
+        {
+            // Setting the style requests a new layout even if it is the same, recycled rows usually already have it.
+            if(typeface != this.appliedTypeface || textSizePx != this.appliedTextSizePx)
+            {
+                this.englishText.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSizePx);
+                this.englishText.setTypeface(typeface);
+                this.foreignText.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSizePx);
+                this.foreignText.setTypeface(typeface);
+
+                this.appliedTypeface = typeface;
+                this.appliedTextSizePx = textSizePx;
+            }
+
+            this.englishText.setText(englishWord);
+            this.foreignText.setText(foreignWord);
         }
     }
 }
@@ -0,0 +1,148 @@
+package com.aaron.vocabulary.application;
+
+import com.aaron.vocabulary.model.LogsManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.Completable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Runs the initializers of the application as a dependency graph. Initializers on the main thread run first, in the order they are added, before
+ * {@link #start()} returns. The others run on background threads as soon as their dependencies are done, in parallel with each other and with the
+ * first frame. The duration of each initializer is recorded in the application logs.
+ */
+final class StartupGraph
+{
+    private static final String CLASS_NAME = StartupGraph.class.getSimpleName();
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    /**
+     * Adds an initializer run before {@link #start()} returns, on the main thread.
+     *
+     * @param name         the name of the initializer, logged with its duration
+     * @param initializer  the initialization code
+     * @param dependencies the names of the initializers to run before, all on the main thread
+     * @return this
+     */
+    StartupGraph addOnMainThread(String name, Runnable initializer, String... dependencies)
+    {
+        return add(name, true, initializer, dependencies);
+    }
+
+    /**
+     * Adds an initializer run on a background thread, once its dependencies are done.
+     *
+     * @param name         the name of the initializer, logged with its duration
+     * @param initializer  the initialization code
+     * @param dependencies the names of the initializers to run before
+     * @return this
+     */
+    StartupGraph addInBackground(String name, Runnable initializer, String... dependencies)
+    {
+        return add(name, false, initializer, dependencies);
+    }
+
+    private StartupGraph add(String name, boolean isOnMainThread, Runnable initializer, String... dependencies)
+    {
+        if(nodes.containsKey(name))
+        {
+            throw new IllegalArgumentException("Duplicate initializer=" + name);
+        }
+
+        List<Node> dependencyNodes = new ArrayList<>(dependencies.length);
+        for(String dependency : dependencies)
+        {
+            // Dependencies must be added first, so the graph cannot have a cycle.
+            Node node = nodes.get(dependency);
+            if(node == null)
+            {
+                throw new IllegalArgumentException("Unknown dependency=" + dependency + " of initializer=" + name);
+            }
+            if(isOnMainThread && !node.isOnMainThread)
+            {
+                throw new IllegalArgumentException("Main thread initializer=" + name + " cannot wait for background initializer=" + dependency);
+            }
+
+            dependencyNodes.add(node);
+        }
+
+        nodes.put(name, new Node(name, isOnMainThread, initializer, dependencyNodes));
+
+        return this;
+    }
+
+    /**
+     * Runs the main thread initializers, then starts the background ones. An error of a background initializer is logged, and the initializers
+     * depending on it are not run.
+     */
+    void start()
+    {
+        long startTime = System.nanoTime();
+
+        for(Node node : nodes.values())
+        {
+            if(node.isOnMainThread)
+            {
+                node.run();
+            }
+        }
+
+        LogsManager.log(CLASS_NAME, "start", "Main thread initializers done in " + toMillis(System.nanoTime() - startTime) + " ms");
+
+        for(Node node : nodes.values())
+        {
+            if(!node.isOnMainThread)
+            {
+                node.completable.subscribe(() -> {}, e -> LogsManager.log(CLASS_NAME, "start", "Initializer=" + node.name + " not done.", e));
+            }
+        }
+    }
+
+    private static long toMillis(long nanos)
+    {
+        return nanos / 1_000_000;
+    }
+
+    private static final class Node
+    {
+        private final String name;
+        private final boolean isOnMainThread;
+        private final Runnable initializer;
+        // Runs the initializer once, after its dependencies, for every node depending on it. Only used for background nodes.
+        private final Completable completable;
+
+        private Node(String name, boolean isOnMainThread, Runnable initializer, List<Node> dependencies)
+        {
+            this.name = name;
+            this.isOnMainThread = isOnMainThread;
+            this.initializer = initializer;
+
+            List<Completable> backgroundDependencies = new ArrayList<>(dependencies.size());
+            for(Node dependency : dependencies)
+            {
+                if(!dependency.isOnMainThread)
+                {
+                    backgroundDependencies.add(dependency.completable);
+                }
+            }
+
+            this.completable = Completable.merge(backgroundDependencies)
+                    .andThen(Completable.fromAction(this::run).subscribeOn(Schedulers.io()))
+                    .cache();
+        }
+
+        private void run()
+        {
+            long startTime = System.nanoTime();
+            initializer.run();
+
+            LogsManager.log(CLASS_NAME, "run", "Initializer=" + name + " thread=" + Thread.currentThread().getName() + " done in " +
+                    toMillis(System.nanoTime() - startTime) + " ms");
+        }
+    }
+}
@@ -2,16 +2,25 @@ package com.aaron.vocabulary.application;
 
 import android.app.Application;
 
+import com.aaron.vocabulary.model.MySQLiteHelper;
 import com.facebook.stetho.Stetho;
 import com.jakewharton.threetenabp.AndroidThreeTen;
 import com.squareup.leakcanary.LeakCanary;
 
+import org.threeten.bp.ZoneId;
+
 /**
  * Created by Aaron on 13/09/2017.
  */
 
 public class VocabularyApplication extends Application
 {
+    private static final String LEAK_CANARY = "LeakCanary";
+    private static final String THREE_TEN = "AndroidThreeTen";
+    private static final String THREE_TEN_ZONE_RULES = "AndroidThreeTenZoneRules";
+    private static final String STETHO = "Stetho";
+    private static final String DATABASE = "Database";
+
     @Override
     public void onCreate()
     {
@@ -22,12 +31,19 @@ public class VocabularyApplication extends Application
             // You should not init your app in this process.
             return;
         }
-        LeakCanary.install(this);
-
-        // Access in Google Chrome url via -> chrome://inspect
-        Stetho.initializeWithDefaults(this);
 
-        // Normal app init code...
-        AndroidThreeTen.init(this);
+        // Only what the first activity may use before its first frame is initialized on the main thread.
+        new StartupGraph()
+                // Watches the activities, must be installed before the first one is created.
+                .addOnMainThread(LEAK_CANARY, () -> LeakCanary.install(this))
+                // Only registers the time zone provider, the time zone rules are loaded on their first use.
+                .addOnMainThread(THREE_TEN, () -> AndroidThreeTen.init(this))
+                // Loads the time zone rules before the last updated date is formatted.
+                .addInBackground(THREE_TEN_ZONE_RULES, ZoneId::systemDefault, THREE_TEN)
+                // Access in Google Chrome url via -> chrome://inspect
+                .addInBackground(STETHO, () -> Stetho.initializeWithDefaults(this))
+                // Opens or upgrades the database before the vocabulary list is read.
+                .addInBackground(DATABASE, () -> MySQLiteHelper.getInstance(this).getWritableDatabase())
+                .start();
     }
 }
@@ -5,8 +5,7 @@ package com.aaron.vocabulary.bean;
  */
 public enum DataKey
 {
-    EXTRA_SETTINGS("com.aaron.vocabulary.fragment.settings"),
-    EXTRA_VOCABULARY_LIST("com.aaron.vocabulary.fragment.vocabulary_list.list");
+    EXTRA_SETTINGS("com.aaron.vocabulary.fragment.settings");
 
     private String value;
 
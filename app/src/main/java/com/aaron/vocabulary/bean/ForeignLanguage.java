@@ -4,14 +4,37 @@ import com.fasterxml.jackson.annotation.JsonValue;
 
 /**
  * Enum for the list of available foreign languages.
+ * The ordinal is the id stored in the database, so new languages must only be appended, never inserted or reordered.
  */
 public enum ForeignLanguage
 {
     Hokkien, Japanese, Mandarin;
 
+    // values() returns a new copy on every call, lookups by id happen for every row read.
+    private static final ForeignLanguage[] VALUES = values();
+
     @JsonValue
     public String getLanguage()
     {
         return toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the id of the language in the database.
+     */
+    public int getId()
+    {
+        return ordinal();
+    }
+
+    /**
+     * Returns the language with the given database id.
+     *
+     * @param id the id of the language in the database
+     * @return ForeignLanguage
+     */
+    public static ForeignLanguage fromId(int id)
+    {
+        return VALUES[id];
+    }
+}
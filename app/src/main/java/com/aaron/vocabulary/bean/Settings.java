@@ -33,6 +33,9 @@ public class Settings implements Parcelable
         Never,
     }
 
+    // Typefaces by font name and style, resolved on first use. A race only creates the same typeface twice.
+    private static final Typeface[][] TYPEFACES = new Typeface[FontName.values().length][FontStyle.values().length];
+
     private ForeignLanguage foreignLanguage;
     private FontName fontName;
     private FontStyle fontStyle;
@@ -178,11 +181,23 @@ public class Settings implements Parcelable
     }
 
     /**
-     * Returns the typeface of this vocabulary.
+     * Returns the typeface of this vocabulary. Resolved once per font name and style, settings with the same font return the same instance.
      *
      * @return Typeface
      */
     public Typeface getTypeface()
+    {
+        Typeface typeface = TYPEFACES[this.getFontNameIndex()][this.getFontStyleIndex()];
+        if(typeface == null)
+        {
+            typeface = createTypeface();
+            TYPEFACES[this.getFontNameIndex()][this.getFontStyleIndex()] = typeface;
+        }
+
+        return typeface;
+    }
+
+    private Typeface createTypeface()
     {
         Typeface family;
 
@@ -0,0 +1,87 @@
+package com.aaron.vocabulary.bean;
+
+/**
+ * Bean that holds the outcome of applying a set of vocabularies to the local database.
+ */
+public class UpsertResult
+{
+    private int insertedCount;
+    private int updatedCount;
+    private int unchangedCount;
+
+    public int getInsertedCount()
+    {
+        return this.insertedCount;
+    }
+
+    public int getUpdatedCount()
+    {
+        return this.updatedCount;
+    }
+
+    public int getUnchangedCount()
+    {
+        return this.unchangedCount;
+    }
+
+    /**
+     * Returns the number of vocabularies that were written, inserted or updated.
+     *
+     * @return int
+     */
+    public int getChangedCount()
+    {
+        return this.insertedCount + this.updatedCount;
+    }
+
+    public void incrementInsertedCount()
+    {
+        this.insertedCount++;
+    }
+
+    public void incrementUpdatedCount()
+    {
+        this.updatedCount++;
+    }
+
+    public void incrementUnchangedCount()
+    {
+        this.unchangedCount++;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if(this == o)
+        {
+            return true;
+        }
+        if(o == null || getClass() != o.getClass())
+        {
+            return false;
+        }
+
+        UpsertResult that = (UpsertResult) o;
+
+        return insertedCount == that.insertedCount && updatedCount == that.updatedCount && unchangedCount == that.unchangedCount;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = insertedCount;
+        result = 31 * result + updatedCount;
+        result = 31 * result + unchangedCount;
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "UpsertResult{" +
+                "insertedCount=" + insertedCount +
+                ", updatedCount=" + updatedCount +
+                ", unchangedCount=" + unchangedCount +
+                '}';
+    }
+}
@@ -5,8 +5,6 @@ import android.os.Parcelable;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.Objects;
-
 /**
  * Java bean for a vocabulary.
  */
@@ -94,7 +92,11 @@ public class Vocabulary implements Parcelable
     @Override
     public int hashCode()
     {
-        return Objects.hash(englishWord, foreignWord, foreignLanguage);
+        // Not Objects.hash, which allocates a varargs array on every call.
+        int result = englishWord != null ? englishWord.hashCode() : 0;
+        result = 31 * result + (foreignWord != null ? foreignWord.hashCode() : 0);
+        result = 31 * result + (foreignLanguage != null ? foreignLanguage.hashCode() : 0);
+        return result;
     }
 
     /**
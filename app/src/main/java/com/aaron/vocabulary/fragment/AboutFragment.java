@@ -26,6 +26,9 @@ import java.util.EnumMap;
 import java.util.Map;
 import java.util.Set;
 
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.CompositeDisposable;
+
 import static com.aaron.vocabulary.bean.DataKey.EXTRA_SETTINGS;
 import static com.aaron.vocabulary.model.VocabularyManager.DATE_FORMAT_DATABASE;
 
@@ -43,6 +46,9 @@ public class AboutFragment extends Fragment implements Backable
 
     private VocabularyManager vocabularyManager;
     private Settings settings;
+    private TextView lastUpdatedTextView;
+    private GridLayout foreignLanguagesCountGrid;
+    private CompositeDisposable compositeDisposable = new CompositeDisposable();
 
     /**
      * Initializes non-fragmentRef user interface.
@@ -84,23 +90,45 @@ public class AboutFragment extends Fragment implements Backable
         String buildNumber = getActivity().getString(R.string.build_num);
         buildNumberTextView.setText(buildNumber);
 
-        TextView lastUpdatedTextView = view.findViewById(R.id.text_last_updated);
-        String lastUpdated = this.vocabularyManager.getLastUpdated(DATE_FORMAT_DATABASE);
-        lastUpdatedTextView.setText(lastUpdated);
-
-        initializeForeignLanguagesCountView(view);
+        this.lastUpdatedTextView = view.findViewById(R.id.text_last_updated);
+        this.foreignLanguagesCountGrid = view.findViewById(R.id.gridlayout_count);
+        this.foreignLanguagesCountGrid.setColumnCount(FOREIGN_LANGUAGES_COLUMN_COUNT);
 
         Log.d(LogsManager.TAG, CLASS_NAME + ": onCreateView.");
 
         return view;
     }
 
-    private void initializeForeignLanguagesCountView(View view)
+    /**
+     * Shows the last updated date and the vocabulary counts, again each time they change.
+     */
+    @Override
+    public void onStart()
+    {
+        super.onStart();
+
+        this.compositeDisposable.add(this.vocabularyManager.observeLastUpdated(DATE_FORMAT_DATABASE)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this.lastUpdatedTextView::setText, e -> LogsManager.log(CLASS_NAME, "onStart", "Error reading last updated.", e)));
+
+        this.compositeDisposable.add(this.vocabularyManager.observeVocabulariesCount()
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::showForeignLanguagesCount, e -> LogsManager.log(CLASS_NAME, "onStart", "Error reading vocabularies count.", e)));
+    }
+
+    @Override
+    public void onStop()
+    {
+        super.onStop();
+
+        this.compositeDisposable.clear();
+    }
+
+    private void showForeignLanguagesCount(EnumMap<ForeignLanguage, Integer> vocabularyCount)
     {
-        GridLayout gridLayout = view.findViewById(R.id.gridlayout_count);
-        gridLayout.setColumnCount(FOREIGN_LANGUAGES_COLUMN_COUNT);
+        GridLayout gridLayout = this.foreignLanguagesCountGrid;
+        gridLayout.removeAllViews();
 
-        EnumMap<ForeignLanguage, Integer> vocabularyCount = this.vocabularyManager.getVocabulariesCount();
         Set<Map.Entry<ForeignLanguage, Integer>> entrySet = vocabularyCount.entrySet();
         gridLayout.setRowCount(entrySet.size());
 
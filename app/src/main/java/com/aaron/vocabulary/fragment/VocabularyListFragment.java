@@ -1,9 +1,14 @@
 package com.aaron.vocabulary.fragment;
 
 import android.app.Activity;
-import android.app.ListFragment;
+import android.app.ActivityManager;
+import android.app.Fragment;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.Process;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -13,6 +18,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.EditText;
 import android.widget.ProgressBar;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import com.aaron.vocabulary.R;
@@ -21,36 +27,41 @@ import com.aaron.vocabulary.activity.LogsActivity;
 import com.aaron.vocabulary.activity.SettingsActivity;
 import com.aaron.vocabulary.adapter.VocabularyAdapter;
 import com.aaron.vocabulary.bean.ForeignLanguage;
-import com.aaron.vocabulary.bean.ResponseVocabulary;
 import com.aaron.vocabulary.bean.SearchType;
 import com.aaron.vocabulary.bean.Settings;
-import com.aaron.vocabulary.bean.Vocabulary;
-import com.aaron.vocabulary.fragment.listener.ShowHideFastScrollListener;
+import com.aaron.vocabulary.bean.UpsertResult;
 import com.aaron.vocabulary.fragment.listener.VocabularySearchListener;
+import com.aaron.vocabulary.model.CompactVocabularyList;
 import com.aaron.vocabulary.model.HttpClient;
 import com.aaron.vocabulary.model.LogsManager;
+import com.aaron.vocabulary.model.VocabularyList;
 import com.aaron.vocabulary.model.VocabularyManager;
 
-import java.util.ArrayList;
-import java.util.EnumMap;
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.observers.DisposableSingleObserver;
 import io.reactivex.schedulers.Schedulers;
+import okhttp3.ResponseBody;
 
 import static com.aaron.vocabulary.bean.DataKey.EXTRA_SETTINGS;
-import static com.aaron.vocabulary.bean.DataKey.EXTRA_VOCABULARY_LIST;
 import static com.aaron.vocabulary.model.VocabularyManager.DATE_FORMAT_WEB;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 /**
  * Main view fragment containing the vocabulary list with main menu bar.
  */
-public class VocabularyListFragment extends ListFragment
+public class VocabularyListFragment extends Fragment
 {
     private enum MenuRequest
     {
@@ -72,13 +83,24 @@ public class VocabularyListFragment extends ListFragment
     public static final String CLASS_NAME = VocabularyListFragment.class.getSimpleName();
     private static final Pattern IP_ADDRESS_PATTERN = Pattern.compile("(\\d{1,3}\\.){3}\\d{1,3}");
     private static final AtomicBoolean IS_UPDATING = new AtomicBoolean(false);
+    // Enough recycled rows to fill a fling over a tall screen, without inflating new ones.
+    private static final int RECYCLED_ROWS_COUNT = 20;
+
+    // Single background-priority thread, so that prefetching never competes with the UI or a sync.
+    private static final Scheduler PREFETCH_SCHEDULER = Schedulers.from(Executors.newSingleThreadExecutor(runnable -> new Thread(() ->
+    {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        runnable.run();
+    }, "vocabulary-prefetch")));
 
-    private ArrayList<Vocabulary> list;
+    private VocabularyList list;
     private VocabularyAdapter vocabularyAdapter;
 
     private Settings settings;
     private EditText searchEditText;
     private ProgressBar updateProgressBar;
+    private TextView emptyListText;
+    private RecyclerView recyclerView;
     private VocabularySearchListener searchListener;
     private SearchType selectedSearchType;
     private ForeignLanguage selectedForeignLanguage = ForeignLanguage.Hokkien;
@@ -86,6 +108,32 @@ public class VocabularyListFragment extends ListFragment
     private VocabularyManager vocabularyManager;
     private HttpClient httpClient;
     private CompositeDisposable compositeDisposable;
+    private Disposable prefetchDisposable;
+    private Disposable vocabularyListDisposable;
+
+    /**
+     * Shows the empty list text in place of the list, as ListFragment did for its empty view.
+     */
+    private final RecyclerView.AdapterDataObserver emptyListObserver = new RecyclerView.AdapterDataObserver()
+    {
+        @Override
+        public void onChanged()
+        {
+            showEmptyListText();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount)
+        {
+            showEmptyListText();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount)
+        {
+            showEmptyListText();
+        }
+    };
 
     /**
      * Initializes non-fragment user interface.
@@ -100,16 +148,15 @@ public class VocabularyListFragment extends ListFragment
         compositeDisposable = new CompositeDisposable();
 
         initializeSettings(savedInstanceState);
-        initializeVocabularyList(savedInstanceState);
+        initializeVocabularyList();
 
         vocabularyAdapter = new VocabularyAdapter(getActivity(), list, settings);
-        setListAdapter(vocabularyAdapter);
 
         setHasOptionsMenu(true);
         selectedSearchType = SearchType.ENGLISH;
         searchListener = new VocabularySearchListener(vocabularyAdapter, selectedSearchType);
 
-        LogsManager.log(CLASS_NAME, "onCreate", "settings=" + settings + " list_size=" + list.size());
+        LogsManager.log(CLASS_NAME, "onCreate", "settings=" + settings);
     }
 
     private void initializeSettings(Bundle savedInstanceState)
@@ -129,17 +176,13 @@ public class VocabularyListFragment extends ListFragment
         }
     }
 
-    private void initializeVocabularyList(Bundle savedInstanceState)
+    /**
+     * Starts with an empty list, the vocabularies are loaded in the background once the fragment is started, see {@link #observeVocabularyList()}.
+     * The list is not saved in the instance state, it is paged from the database again instead of being parceled as a whole.
+     */
+    private void initializeVocabularyList()
     {
-        if(savedInstanceState != null && savedInstanceState.containsKey(EXTRA_VOCABULARY_LIST.toString()))
-        {
-            list = savedInstanceState.getParcelableArrayList(EXTRA_VOCABULARY_LIST.toString());
-        }
-
-        if(list == null)
-        {
-            list = vocabularyManager.getVocabulariesFromDisk(settings.getForeignLanguage());
-        }
+        list = CompactVocabularyList.copyOf(settings.getForeignLanguage(), Collections.emptyList());
     }
 
     /**
@@ -152,13 +195,59 @@ public class VocabularyListFragment extends ListFragment
 
         updateProgressBar = view.findViewById(R.id.progress_bar_update);
 
+        // Placeholder shown by the empty list until the vocabularies are loaded.
+        emptyListText = view.findViewById(R.id.text_empty_list);
+        emptyListText.setText(R.string.text_loading_list);
+
+        initializeRecyclerView(view);
+
         Log.d(LogsManager.TAG, CLASS_NAME + ": onCreateView.");
 
         return view;
     }
 
     /**
-     * Called after onCreateView(), sets the action listeners of the UI.
+     * Rows are all the same height and their ids are stable, so the list is only laid out again for the rows that changed. The next rows are
+     * prefetched while the list scrolls, and the fast scroll thumb of the layout is shown only while scrolling.
+     */
+    private void initializeRecyclerView(View view)
+    {
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getActivity());
+        layoutManager.setItemPrefetchEnabled(true);
+
+        recyclerView = view.findViewById(R.id.recycler_view_vocabulary_list);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setHasFixedSize(true);
+        recyclerView.getRecycledViewPool().setMaxRecycledViews(0, RECYCLED_ROWS_COUNT);
+        recyclerView.setAdapter(vocabularyAdapter);
+
+        vocabularyAdapter.registerAdapterDataObserver(emptyListObserver);
+        showEmptyListText();
+    }
+
+    private void showEmptyListText()
+    {
+        if(emptyListText != null)
+        {
+            emptyListText.setVisibility(vocabularyAdapter.getItemCount() == 0 ? View.VISIBLE : View.GONE);
+        }
+    }
+
+    /**
+     * The adapter outlives the view, so it stops updating the empty list text of a destroyed one.
+     */
+    @Override
+    public void onDestroyView()
+    {
+        super.onDestroyView();
+
+        vocabularyAdapter.unregisterAdapterDataObserver(emptyListObserver);
+        recyclerView = null;
+        emptyListText = null;
+    }
+
+    /**
+     * Called after onCreateView().
      */
     @Override
     public void onActivityCreated(Bundle savedInstanceState)
@@ -166,8 +255,55 @@ public class VocabularyListFragment extends ListFragment
         super.onActivityCreated(savedInstanceState);
 
         Log.d(LogsManager.TAG, CLASS_NAME + ": onActivityCreated.");
+    }
+
+    /**
+     * Observes the vocabularies of the selected language, and filters them with the searched text, while the fragment is visible.
+     */
+    @Override
+    public void onStart()
+    {
+        super.onStart();
 
-        getListView().setOnScrollListener(new ShowHideFastScrollListener());
+        observeVocabularyList();
+        compositeDisposable.add(searchListener.startFiltering());
+    }
+
+    /**
+     * Loads the vocabularies of the selected language in the background, then replaces the displayed list each time they change. A sync or a delete
+     * does not need to reload it. Cancelled when the fragment is stopped. Only the count of the list is read before it is displayed, its rows are
+     * read as they are scrolled to.
+     */
+    private void observeVocabularyList()
+    {
+        if(vocabularyListDisposable != null)
+        {
+            compositeDisposable.remove(vocabularyListDisposable);
+        }
+
+        vocabularyListDisposable = vocabularyManager.observePagedVocabularies(selectedForeignLanguage)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::showVocabularyList, e -> LogsManager.log(CLASS_NAME, "observeVocabularyList", "Error reading vocabularies.", e));
+
+        compositeDisposable.add(vocabularyListDisposable);
+    }
+
+    private void showVocabularyList(VocabularyList vocabularyList)
+    {
+        // The first list is usually the one already displayed, the snapshot cached when it was loaded.
+        if(vocabularyList == list || !selectedForeignLanguage.equals(vocabularyList.getForeignLanguage()))
+        {
+            return;
+        }
+
+        list = vocabularyList;
+        vocabularyAdapter.update(list);
+        emptyListText.setText(R.string.text_empty_list);
+
+        // Built before the first search, so that typing does not wait for it.
+        Schedulers.computation().scheduleDirect(vocabularyList::getSearchIndex);
+
+        LogsManager.log(CLASS_NAME, "showVocabularyList", "list_size=" + list.size());
     }
 
     /**
@@ -181,9 +317,60 @@ public class VocabularyListFragment extends ListFragment
         String language = getString(R.string.app_name, settings.getForeignLanguage().name());
         getActivity().setTitle(language);
 
+        // Once the list is drawn and the main thread has nothing else to do.
+        Looper.myQueue().addIdleHandler(() ->
+        {
+            prefetchOtherLanguages();
+            return false;
+        });
+
         Log.d(LogsManager.TAG, CLASS_NAME + ": onResume");
     }
 
+    /**
+     * Prefetches the vocabularies of the other foreign languages in the background, so that switching language in Settings does not wait on the disk.
+     * Skipped while the device is low on memory.
+     */
+    private void prefetchOtherLanguages()
+    {
+        Activity activity = getActivity();
+        if(activity == null || (prefetchDisposable != null && !prefetchDisposable.isDisposed()))
+        {
+            return;
+        }
+
+        ActivityManager.MemoryInfo memoryInfo = new ActivityManager.MemoryInfo();
+        ((ActivityManager) activity.getSystemService(Activity.ACTIVITY_SERVICE)).getMemoryInfo(memoryInfo);
+        if(memoryInfo.lowMemory)
+        {
+            LogsManager.log(CLASS_NAME, "prefetchOtherLanguages", "Skipped, low memory.");
+            return;
+        }
+
+        ForeignLanguage foreignLanguage = selectedForeignLanguage;
+        prefetchDisposable = Completable.fromAction(() -> vocabularyManager.prefetchVocabularies(foreignLanguage))
+                .subscribeOn(PREFETCH_SCHEDULER)
+                .subscribe(() -> {}, e -> LogsManager.log(CLASS_NAME, "prefetchOtherLanguages", "Error prefetching vocabularies.", e));
+
+        compositeDisposable.add(prefetchDisposable);
+    }
+
+    /**
+     * Stops prefetching and releases cached vocabularies of the other foreign languages under memory pressure.
+     */
+    @Override
+    public void onTrimMemory(int level)
+    {
+        super.onTrimMemory(level);
+
+        if(prefetchDisposable != null)
+        {
+            compositeDisposable.remove(prefetchDisposable);
+        }
+
+        VocabularyManager.trimCache(level);
+    }
+
     /**
      * Saves current state and settings in memory. For screen rotation.
      */
@@ -193,7 +380,6 @@ public class VocabularyListFragment extends ListFragment
         super.onSaveInstanceState(outState);
 
         outState.putParcelable(EXTRA_SETTINGS.toString(), settings);
-        outState.putParcelableArrayList(EXTRA_VOCABULARY_LIST.toString(), list);
 
         Log.d(LogsManager.TAG, CLASS_NAME + ": onSaveInstanceState");
     }
@@ -225,15 +411,21 @@ public class VocabularyListFragment extends ListFragment
                 boolean foreignLanguageChanged = !selectedForeignLanguage.equals(settings.getForeignLanguage());
 
                 selectedForeignLanguage = settings.getForeignLanguage();
-                list = vocabularyManager.getVocabulariesFromDisk(selectedForeignLanguage);
 
+                // The vocabularies of the new language are loaded in the background by observeVocabularyList(), same as when the fragment is started.
                 if(foreignLanguageChanged)
                 {
+                    initializeVocabularyList();
                     reinitializeAdapterAndSearchListener();
+                    if(emptyListText != null)
+                    {
+                        emptyListText.setText(R.string.text_loading_list);
+                    }
+                    observeVocabularyList();
                 }
                 else
                 {
-                    updateVocabularyAdapterInUiThread();
+                    vocabularyAdapter.setSettings(settings);
                 }
 
                 updateRetrofitBaseUrl(requestCode);
@@ -243,8 +435,19 @@ public class VocabularyListFragment extends ListFragment
 
     private void reinitializeAdapterAndSearchListener()
     {
+        VocabularyAdapter previousAdapter = vocabularyAdapter;
         vocabularyAdapter = new VocabularyAdapter(getActivity(), list, settings);
-        setListAdapter(vocabularyAdapter);
+
+        if(recyclerView != null)
+        {
+            previousAdapter.unregisterAdapterDataObserver(emptyListObserver);
+            vocabularyAdapter.registerAdapterDataObserver(emptyListObserver);
+
+            // Keeps the recycled rows, both adapters inflate the same ones.
+            recyclerView.swapAdapter(vocabularyAdapter, false);
+            showEmptyListText();
+        }
+
         searchListener.setVocabularyAdapter(vocabularyAdapter);
     }
 
@@ -291,6 +494,9 @@ public class VocabularyListFragment extends ListFragment
         {
             searchEditText.getText().clear();
         }
+        // The search of the cleared text would only be applied after the searches are disposed below. The fragment is stopped, the whole list is
+        // displayed again without a search.
+        vocabularyAdapter.clearFilter();
 
         if(!compositeDisposable.isDisposed())
         {
@@ -320,8 +526,10 @@ public class VocabularyListFragment extends ListFragment
                     Log.d(LogsManager.TAG, CLASS_NAME + ": onOptionsItemSelected. Updating vocabularies.");
                     preUpdating();
 
-                    Disposable disposable = httpClient.getVocabularies(vocabularyManager.getLastUpdated(DATE_FORMAT_WEB))
+                    // The response is written to the database while it is downloaded, on the io thread.
+                    Disposable disposable = httpClient.streamVocabularies(vocabularyManager.getLastUpdated(DATE_FORMAT_WEB))
                             .subscribeOn(Schedulers.io())
+                            .map(this::upsertVocabulariesFromWeb)
                             .observeOn(AndroidSchedulers.mainThread())
                             .doFinally(this::doneUpdating)
                             .subscribeWith(updateVocabulariesFromWebObserver());
@@ -366,6 +574,8 @@ public class VocabularyListFragment extends ListFragment
     private void preUpdating()
     {
         IS_UPDATING.set(true);
+        updateProgressBar.setIndeterminate(true);
+        updateProgressBar.setProgress(0);
         updateProgressBar.setVisibility(View.VISIBLE);
     }
 
@@ -375,46 +585,58 @@ public class VocabularyListFragment extends ListFragment
         updateProgressBar.setVisibility(View.INVISIBLE);
     }
 
-    private DisposableSingleObserver<ResponseVocabulary> updateVocabulariesFromWebObserver()
+    /**
+     * Runs on the io thread. The progress is the part of the response body read so far, and is only shown if the server sent its length.
+     */
+    private UpsertResult upsertVocabulariesFromWeb(ResponseBody responseBody) throws IOException
+    {
+        try(ResponseBody body = responseBody;
+            CountingInputStream json = new CountingInputStream(body.byteStream()))
+        {
+            long contentLength = body.contentLength();
+
+            // Only inserts new and updates changed vocabularies, existing ones are left untouched. (Atomic)
+            return vocabularyManager.upsertVocabulariesFromJson(json, writtenCount -> postUpdateProgress(json.getByteCount(), contentLength));
+        }
+    }
+
+    private void postUpdateProgress(long readBytes, long contentLength)
     {
-        return new DisposableSingleObserver<ResponseVocabulary>()
+        if(contentLength <= 0)
+        {
+            return;
+        }
+
+        int progress = (int) (Math.min(readBytes, contentLength) * updateProgressBar.getMax() / contentLength);
+        updateProgressBar.post(() ->
+        {
+            updateProgressBar.setIndeterminate(false);
+            updateProgressBar.setProgress(progress);
+        });
+    }
+
+    private DisposableSingleObserver<UpsertResult> updateVocabulariesFromWebObserver()
+    {
+        return new DisposableSingleObserver<UpsertResult>()
         {
             @Override
-            public void onSuccess(ResponseVocabulary response)
+            public void onSuccess(UpsertResult result)
             {
                 String message;
-                EnumMap<ForeignLanguage, ArrayList<Vocabulary>> map = response.getVocabularyMap();
-                if(map == null || map.isEmpty())
+                int newCount = result.getInsertedCount();
+                if(newCount == 0)
                 {
                     message = "No new vocabularies available.";
                 }
+                else if(newCount > 1)
+                {
+                    message = newCount + " new vocabularies added.";
+                }
                 else
                 {
-                    // Also calls delete all vocabularies, before saving. (Atomic)
-                    boolean saveToDiskSuccess = vocabularyManager.replaceVocabulariesInDisk(map);
-
-                    if(saveToDiskSuccess)
-                    {
-                        int newCount = response.getRecentlyAddedCount();
-                        if(newCount > 1)
-                        {
-                            message = newCount + " new vocabularies added.";
-                        }
-                        else
-                        {
-                            message = newCount + " new vocabulary added.";
-                        }
-
-                        list = map.get(settings.getForeignLanguage());
-                    }
-                    else
-                    {
-                        message = "Failed saving to disk.";
-                    }
+                    message = newCount + " new vocabulary added.";
                 }
 
-                updateVocabularyAdapterInUiThread();
-
                 Toast.makeText(getContext(), message, Toast.LENGTH_LONG).show();
             }
 
@@ -465,12 +687,7 @@ public class VocabularyListFragment extends ListFragment
         {
             LogsManager.log(CLASS_NAME, "applyVocabularyFilter", "searchText=" + searchText + " selectedSearchType=" + selectedSearchType);
 
-            vocabularyAdapter.filter(searchText, selectedSearchType);
+            searchListener.search(searchText);
         }
     }
-
-    private void updateVocabularyAdapterInUiThread()
-    {
-        getActivity().runOnUiThread(() -> vocabularyAdapter.update(list));
-    }
 }
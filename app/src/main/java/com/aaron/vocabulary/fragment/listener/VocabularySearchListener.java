@@ -2,19 +2,34 @@ package com.aaron.vocabulary.fragment.listener;
 
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.Log;
 
 import com.aaron.vocabulary.adapter.VocabularyAdapter;
 import com.aaron.vocabulary.bean.SearchType;
 import com.aaron.vocabulary.model.LogsManager;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+
 import static com.aaron.vocabulary.fragment.VocabularyListFragment.CLASS_NAME;
 
 /**
- * Helper class for search listener.
+ * Helper class for search listener. Searches once the user stops typing, on a background thread. A search still running when the text changes again
+ * is cancelled, only the result of the latest text is displayed.
  */
 public class VocabularySearchListener implements TextWatcher
 {
+    private static final long SEARCH_DEBOUNCE_MILLIS = 150;
+
+    // Each search is prepared with the adapter and search type of the time it was typed.
+    private final FlowableProcessor<Callable<VocabularyAdapter.FilterResult>> searches = PublishProcessor.create();
+
     private VocabularyAdapter adapter;
     private SearchType searchType;
 
@@ -24,16 +39,46 @@ public class VocabularySearchListener implements TextWatcher
         this.searchType = searchType;
     }
 
+    /**
+     * Starts filtering the adapter with the searched texts, until the returned Disposable is disposed.
+     *
+     * @return Disposable
+     */
+    public Disposable startFiltering()
+    {
+        return this.searches.onBackpressureLatest()
+                .debounce(SEARCH_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)
+                .switchMap(search -> Flowable.fromCallable(search).subscribeOn(Schedulers.computation()))
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::applyFilter, e -> LogsManager.log(CLASS_NAME, "startFiltering", "Error searching vocabularies.", e));
+    }
+
+    private void applyFilter(VocabularyAdapter.FilterResult filterResult)
+    {
+        this.adapter.applyFilter(filterResult);
+    }
+
     /**
      * Handles search on text update.
      */
     @Override
     public void afterTextChanged(Editable textField)
     {
-        String searched = textField.toString();
-        this.adapter.filter(searched, this.searchType);
+        search(textField.toString());
+    }
+
+    /**
+     * Searches the given text with the current search type.
+     *
+     * @param searched
+     *            the searched word
+     */
+    public void search(String searched)
+    {
+        VocabularyAdapter vocabularyAdapter = this.adapter;
+        SearchType type = this.searchType;
 
-        Log.d(LogsManager.TAG, CLASS_NAME + ": afterTextChanged. searched=" + searched);
+        this.searches.onNext(() -> vocabularyAdapter.search(searched, type));
     }
 
     @Override
@@ -57,4 +102,4 @@ public class VocabularySearchListener implements TextWatcher
     {
         this.adapter = vocabularyAdapter;
     }
-}
\ No newline at end of file
+}
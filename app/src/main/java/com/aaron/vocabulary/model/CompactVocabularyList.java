@@ -0,0 +1,159 @@
+package com.aaron.vocabulary.model;
+
+import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vocabulary list holding the words of all its vocabularies in a single char array, delimited by an int array of offsets.
+ * Uses a fraction of the memory of a list of Vocabulary, which needs three objects per item and a header per String, and only creates a String when a
+ * word is read.
+ */
+public final class CompactVocabularyList extends VocabularyList
+{
+    private final int[] ids;
+    private final char[] words;
+    // The english word of index i starts at offsets[i * 2], its foreign word at offsets[i * 2 + 1]. The last offset is the end of the words.
+    private final int[] offsets;
+    private final int size;
+
+    private CompactVocabularyList(ForeignLanguage foreignLanguage, int[] ids, char[] words, int[] offsets, int size)
+    {
+        super(foreignLanguage);
+
+        this.ids = ids;
+        this.words = words;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    /**
+     * Packs the given vocabularies. Vocabulary has no id, the id of each is its index.
+     *
+     * @param foreignLanguage the foreign language of the vocabularies
+     * @param vocabularies    the vocabularies to pack, in the order of the list
+     * @return CompactVocabularyList
+     */
+    public static CompactVocabularyList copyOf(ForeignLanguage foreignLanguage, List<Vocabulary> vocabularies)
+    {
+        Builder builder = new Builder(foreignLanguage, vocabularies.size());
+        for(int i = 0; i < vocabularies.size(); i++)
+        {
+            Vocabulary vocabulary = vocabularies.get(i);
+            builder.add(i, vocabulary.getEnglishWord(), vocabulary.getForeignWord());
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public long getId(int index)
+    {
+        checkIndex(index);
+        return this.ids[index];
+    }
+
+    @Override
+    public String getEnglishWord(int index)
+    {
+        checkIndex(index);
+        return getWord(index * 2);
+    }
+
+    @Override
+    public String getForeignWord(int index)
+    {
+        checkIndex(index);
+        return getWord(index * 2 + 1);
+    }
+
+    private String getWord(int wordIndex)
+    {
+        int start = this.offsets[wordIndex];
+        return new String(this.words, start, this.offsets[wordIndex + 1] - start);
+    }
+
+    @Override
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns the approximate number of bytes used by the ids, words and offsets.
+     */
+    public long getMemorySize()
+    {
+        return this.ids.length * 4L + this.words.length * 2L + this.offsets.length * 4L;
+    }
+
+    /**
+     * Appends vocabularies to growing arrays, trimmed once built.
+     */
+    static final class Builder
+    {
+        private static final int AVERAGE_WORDS_LENGTH = 32;
+
+        private final ForeignLanguage foreignLanguage;
+        private int[] ids;
+        private char[] words;
+        private int[] offsets;
+        private int size;
+        private int length;
+
+        Builder(ForeignLanguage foreignLanguage, int expectedSize)
+        {
+            int capacity = Math.max(expectedSize, 1);
+
+            this.foreignLanguage = foreignLanguage;
+            this.ids = new int[capacity];
+            this.words = new char[capacity * AVERAGE_WORDS_LENGTH];
+            this.offsets = new int[capacity * 2 + 1];
+        }
+
+        Builder add(int id, String englishWord, String foreignWord)
+        {
+            if(this.size == this.ids.length)
+            {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            // Room for this vocabulary's two offsets, and the end offset written when built.
+            if(this.size * 2 + 3 > this.offsets.length)
+            {
+                this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2 + 1);
+            }
+
+            this.ids[this.size] = id;
+
+            this.offsets[this.size * 2] = this.length;
+            appendWord(englishWord);
+            this.offsets[this.size * 2 + 1] = this.length;
+            appendWord(foreignWord);
+            this.size++;
+
+            return this;
+        }
+
+        private void appendWord(String word)
+        {
+            int end = this.length + word.length();
+            if(end > this.words.length)
+            {
+                this.words = Arrays.copyOf(this.words, Math.max(end, this.words.length * 2));
+            }
+
+            word.getChars(0, word.length(), this.words, this.length);
+            this.length = end;
+        }
+
+        CompactVocabularyList build()
+        {
+            this.offsets[this.size * 2] = this.length;
+
+            return new CompactVocabularyList(this.foreignLanguage, Arrays.copyOf(this.ids, this.size), Arrays.copyOf(this.words, this.length),
+                    Arrays.copyOf(this.offsets, this.size * 2 + 1), this.size);
+        }
+    }
+}
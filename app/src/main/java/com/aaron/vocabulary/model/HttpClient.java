@@ -2,8 +2,6 @@ package com.aaron.vocabulary.model;
 
 import android.util.Log;
 
-import com.aaron.vocabulary.bean.ResponseVocabulary;
-
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 
@@ -15,6 +13,7 @@ import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 import retrofit2.converter.jackson.JacksonConverterFactory;
@@ -77,13 +76,13 @@ public class HttpClient
     }
 
     /**
-     * Get all vocabularies that are greater than or equal with the given last updated.
+     * Get all vocabularies that are greater than or equal with the given last updated, as the unread JSON response body.
      *
      * @param lastUpdated the last updated filter
-     * @return ResponseVocabulary
+     * @return ResponseBody, must be closed
      */
-    public Single<ResponseVocabulary> getVocabularies(String lastUpdated)
+    public Single<ResponseBody> streamVocabularies(String lastUpdated)
     {
-        return service.getAllVocabularies(lastUpdated);
+        return service.streamAllVocabularies(lastUpdated);
     }
 }
@@ -20,7 +20,7 @@ public class LogsManager
      *
      * @param text the message to add
      */
-    public static void log(final String className, final String methodName, final String text)
+    public static synchronized void log(final String className, final String methodName, final String text)
     {
         logs.append(text).append(lineSeparator());
         Log.d(LogsManager.TAG, className + ": " + methodName + ". " + text);
@@ -32,7 +32,7 @@ public class LogsManager
      *
      * @param text the message to add
      */
-    public static void log(final String className, final String methodName, final String text, final Throwable t)
+    public static synchronized void log(final String className, final String methodName, final String text, final Throwable t)
     {
         logs.append(text).append(lineSeparator()).append("Error: ").append(t.getMessage()).append(lineSeparator());
         Log.e(LogsManager.TAG, className + ": " + methodName + ". " + text, t);
@@ -45,16 +45,14 @@ public class LogsManager
      */
     public String getLogs()
     {
-        int lineSeparatorChars = lineSeparator().length();
-        int logsLength = logs.length();
-        int trailingLineSeparatorStartIndex = logsLength - lineSeparatorChars;
+        String allLogs = copyLogs();
 
-        if(lineSeparator().equals(logs.substring(trailingLineSeparatorStartIndex, logsLength)))
+        if(allLogs.endsWith(lineSeparator()))
         {
-            return logs.toString().substring(0, trailingLineSeparatorStartIndex); // Removes trailing '\n' character
+            return allLogs.substring(0, allLogs.length() - lineSeparator().length()); // Removes trailing '\n' character
         }
 
-        return logs.toString();
+        return allLogs;
     }
 
     /**
@@ -64,7 +62,7 @@ public class LogsManager
      */
     public String getLogs(final String keyWord)
     {
-        String[] lines = logs.toString().split(lineSeparator());
+        String[] lines = copyLogs().split(lineSeparator());
         StringBuilder sb = new StringBuilder();
 
         Arrays.stream(lines).filter(line -> line.contains(keyWord)).forEach(line -> sb.append(line).append(lineSeparator()));
@@ -72,6 +70,15 @@ public class LogsManager
         return sb.toString();
     }
 
+    /**
+     * Copies the logs under the same lock as {@link #log(String, String, String)}, so that a message logged from another thread meanwhile is either
+     * fully in the copy or not at all.
+     */
+    private static synchronized String copyLogs()
+    {
+        return logs.toString();
+    }
+
     /**
      * Saves the logs to the local disk.
      *
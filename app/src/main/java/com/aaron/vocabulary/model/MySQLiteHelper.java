@@ -1,20 +1,45 @@
 package com.aaron.vocabulary.model;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
+import com.aaron.vocabulary.bean.ForeignLanguage;
+
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.format.DateTimeFormatter;
+import org.threeten.bp.format.DateTimeParseException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.aaron.vocabulary.model.VocabularyManager.DATE_FORMAT_DATABASE;
+
 /**
  * Model for creating and updating the database.
  */
 public class MySQLiteHelper extends SQLiteOpenHelper
 {
     public static final String DATABASE_NAME = "aaron_vocabulary.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 2;
 
     public static final String TABLE_VOCABULARY = "vocabulary";
-    public static final String[] COLUMN_COUNT = new String[] {"COUNT(*)",};
+
+    public static final String INDEX_VOCABULARY_FOREIGN_LANGUAGE_DATE_IN = "index_vocabulary_foreign_language_date_in";
+    public static final String INDEX_VOCABULARY_DATE_IN = "index_vocabulary_date_in";
+
+    // One row per foreign language, holding its vocabulary count and latest date_in. Maintained by triggers on the vocabulary table.
+    public static final String TABLE_VOCABULARY_STATISTICS = "vocabulary_statistics";
+
+    // One row per ForeignLanguage, whose id is the enum's ordinal. Referenced by the vocabulary table instead of repeating the language name.
+    public static final String TABLE_FOREIGN_LANGUAGE = "foreign_language";
+
+    // The language name column of the vocabulary table in version 1, replaced by foreign_language_id. Only used by the migration from it.
+    private static final String COLUMN_FOREIGN_LANGUAGE_VERSION_1 = "foreign_language";
 
     /**
      * The database's column names.
@@ -24,53 +49,319 @@ public class MySQLiteHelper extends SQLiteOpenHelper
         id,
         english_word,
         foreign_word,
-        foreign_language,
+        foreign_language_id,
         date_in,
+        english_search_key,
+        foreign_search_key,
+    }
+
+    /**
+     * The vocabulary statistics table's column names.
+     */
+    public enum StatisticsColumn
+    {
+        foreign_language_id,
+        vocabulary_count,
+        last_date_in,
     }
 
-    private static final String CREATE_TABLE_VOCABULARY = "CREATE TABLE " + TABLE_VOCABULARY +
+    /**
+     * The foreign language table's column names.
+     */
+    public enum ForeignLanguageColumn
+    {
+        id,
+        name,
+    }
+
+    private static final String CREATE_TABLE_VOCABULARY_VERSION_1 = "CREATE TABLE " + TABLE_VOCABULARY +
             "(" +
             Column.id.name() + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
             Column.english_word.name() + " TEXT NOT NULL, " +
             Column.foreign_word.name() + " TEXT NOT NULL, " +
-            Column.foreign_language.name() + " TEXT NOT NULL, " +
+            COLUMN_FOREIGN_LANGUAGE_VERSION_1 + " TEXT NOT NULL, " +
             Column.date_in.name() + " TEXT NOT NULL, " +
             "UNIQUE(" + Column.english_word.name() + ", " + Column.foreign_word.name() + ")" +
             ");";
 
+    // Stores date_in as epoch milliseconds, and references the foreign language table by id instead of storing the language name.
+    // The search keys are nullable, the keys of vocabularies inserted without them are folded again when read.
+    // The table name is a parameter, because the table is rebuilt under a temporary name.
+    private static final String CREATE_TABLE_VOCABULARY = "CREATE TABLE %s" +
+            "(" +
+            Column.id.name() + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            Column.english_word.name() + " TEXT NOT NULL, " +
+            Column.foreign_word.name() + " TEXT NOT NULL, " +
+            Column.foreign_language_id.name() + " INTEGER NOT NULL REFERENCES " + TABLE_FOREIGN_LANGUAGE + "(" + ForeignLanguageColumn.id.name() + "), " +
+            Column.date_in.name() + " INTEGER NOT NULL, " +
+            Column.english_search_key.name() + " TEXT, " +
+            Column.foreign_search_key.name() + " TEXT, " +
+            "UNIQUE(" + Column.english_word.name() + ", " + Column.foreign_word.name() + ")" +
+            ");";
+
+    // Ids are kept. Vocabularies of an unknown language could not be read anyway, they are dropped by the join.
+    private static final String SELECT_VOCABULARIES_VERSION_1 = "SELECT v." +
+            Column.id.name() + ", v." +
+            Column.english_word.name() + ", v." +
+            Column.foreign_word.name() + ", l." +
+            ForeignLanguageColumn.id.name() + ", v." +
+            Column.date_in.name() +
+            " FROM " + TABLE_VOCABULARY + " v JOIN " + TABLE_FOREIGN_LANGUAGE + " l" +
+            " ON l." + ForeignLanguageColumn.name.name() + " = v." + COLUMN_FOREIGN_LANGUAGE_VERSION_1 + ";";
+
+    private static final String INSERT_VOCABULARY = "INSERT INTO %s(" +
+            Column.id.name() + ", " +
+            Column.english_word.name() + ", " +
+            Column.foreign_word.name() + ", " +
+            Column.foreign_language_id.name() + ", " +
+            Column.date_in.name() + ", " +
+            Column.english_search_key.name() + ", " +
+            Column.foreign_search_key.name() +
+            ") VALUES(?, ?, ?, ?, ?, ?, ?);";
+
+    private static final String CREATE_TABLE_FOREIGN_LANGUAGE = "CREATE TABLE " + TABLE_FOREIGN_LANGUAGE +
+            "(" +
+            ForeignLanguageColumn.id.name() + " INTEGER PRIMARY KEY, " +
+            ForeignLanguageColumn.name.name() + " TEXT NOT NULL UNIQUE" +
+            ");";
+
+    private static final String INSERT_FOREIGN_LANGUAGE = "INSERT OR IGNORE INTO " + TABLE_FOREIGN_LANGUAGE + "(" +
+            ForeignLanguageColumn.id.name() + ", " + ForeignLanguageColumn.name.name() + ") VALUES(?, ?);";
+
+    // Covers the per-language count and lookups, and the per-language latest date_in.
+    private static final String CREATE_INDEX_VOCABULARY_FOREIGN_LANGUAGE_DATE_IN = "CREATE INDEX " + INDEX_VOCABULARY_FOREIGN_LANGUAGE_DATE_IN +
+            " ON " + TABLE_VOCABULARY + "(" + Column.foreign_language_id.name() + ", " + Column.date_in.name() + ");";
+
+    // Covers the latest date_in across all languages.
+    private static final String CREATE_INDEX_VOCABULARY_DATE_IN = "CREATE INDEX " + INDEX_VOCABULARY_DATE_IN +
+            " ON " + TABLE_VOCABULARY + "(" + Column.date_in.name() + ");";
+
+    private static final String CREATE_TABLE_VOCABULARY_STATISTICS = "CREATE TABLE " + TABLE_VOCABULARY_STATISTICS +
+            "(" +
+            StatisticsColumn.foreign_language_id.name() + " INTEGER PRIMARY KEY, " +
+            StatisticsColumn.vocabulary_count.name() + " INTEGER NOT NULL, " +
+            StatisticsColumn.last_date_in.name() + " INTEGER" +
+            ");";
+
+    private static final String POPULATE_TABLE_VOCABULARY_STATISTICS = "INSERT INTO " + TABLE_VOCABULARY_STATISTICS +
+            " SELECT foreign_language_id, COUNT(*), MAX(" + Column.date_in.name() + ")" +
+            " FROM " + TABLE_VOCABULARY + " GROUP BY foreign_language_id;";
+
+    // Counting a row in only needs the new date_in. Counting a row out recomputes the language's latest date_in, read from the index.
+    private static final String COUNT_IN_VOCABULARY_STATISTICS =
+            "INSERT OR IGNORE INTO " + TABLE_VOCABULARY_STATISTICS + " VALUES(new.foreign_language_id, 0, NULL); " +
+            "UPDATE " + TABLE_VOCABULARY_STATISTICS + " SET " +
+            "vocabulary_count = vocabulary_count + 1, " +
+            "last_date_in = MAX(IFNULL(last_date_in, new.date_in), new.date_in) " +
+            "WHERE foreign_language_id = new.foreign_language_id; ";
+
+    private static final String COUNT_OUT_VOCABULARY_STATISTICS =
+            "UPDATE " + TABLE_VOCABULARY_STATISTICS + " SET " +
+            "vocabulary_count = vocabulary_count - 1, " +
+            "last_date_in = (SELECT MAX(date_in) FROM " + TABLE_VOCABULARY + " WHERE foreign_language_id = old.foreign_language_id) " +
+            "WHERE foreign_language_id = old.foreign_language_id; ";
+
+    private static final String[] CREATE_TRIGGERS_VOCABULARY_STATISTICS = new String[] {
+            "CREATE TRIGGER vocabulary_statistics_after_insert AFTER INSERT ON " + TABLE_VOCABULARY + " BEGIN " +
+                    COUNT_IN_VOCABULARY_STATISTICS +
+                    "END;",
+            "CREATE TRIGGER vocabulary_statistics_after_delete AFTER DELETE ON " + TABLE_VOCABULARY + " BEGIN " +
+                    COUNT_OUT_VOCABULARY_STATISTICS +
+                    "END;",
+            "CREATE TRIGGER vocabulary_statistics_after_update AFTER UPDATE OF " + Column.foreign_language_id.name() + ", " + Column.date_in.name() +
+                    " ON " + TABLE_VOCABULARY + " BEGIN " +
+                    COUNT_OUT_VOCABULARY_STATISTICS +
+                    COUNT_IN_VOCABULARY_STATISTICS +
+                    "END;",
+    };
+
+    private static MySQLiteHelper instance;
+
+    /**
+     * Returns the helper shared by the whole process. Its database connection is kept open, and must not be closed by callers after each use.
+     *
+     * @param context any context, only its application context is kept
+     * @return MySQLiteHelper
+     */
+    public static synchronized MySQLiteHelper getInstance(Context context)
+    {
+        if(instance == null)
+        {
+            instance = new MySQLiteHelper(context.getApplicationContext());
+        }
+
+        return instance;
+    }
+
     /**
-     * Default constructor.
+     * Default constructor. Enables write-ahead logging, so that reads are never blocked by a write transaction.
      */
-    public MySQLiteHelper(Context context)
+    private MySQLiteHelper(Context context)
     {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    /**
+     * Closes the shared database. The next {@link #getInstance(Context)} will create and open a new one.
+     */
+    @Override
+    public synchronized void close()
+    {
+        super.close();
+
+        synchronized(MySQLiteHelper.class)
+        {
+            if(instance == this)
+            {
+                instance = null;
+            }
+        }
     }
 
     /**
      * Called if the database name given in the constructor does not exists.
+     * Creates the version 1 schema, then applies every migration up to the current version, so that new and upgraded databases always end up with
+     * the same schema.
      */
     @Override
     public void onCreate(SQLiteDatabase database)
     {
-        Log.d(LogsManager.TAG, "MySQLiteHelper: onCreate. query=" + CREATE_TABLE_VOCABULARY);
+        Log.d(LogsManager.TAG, "MySQLiteHelper: onCreate. query=" + CREATE_TABLE_VOCABULARY_VERSION_1);
 
-        database.execSQL(CREATE_TABLE_VOCABULARY);
+        database.execSQL(CREATE_TABLE_VOCABULARY_VERSION_1);
+        this.onUpgrade(database, 1, DATABASE_VERSION);
     }
 
     /**
      * Called if the version given in the constructor is higher than the existing database version.
+     * Applies each migration in order, preserving the existing data. Runs inside the transaction opened by SQLiteOpenHelper.
      */
     @Override
     public void onUpgrade(SQLiteDatabase database, int oldVersion, int newVersion)
     {
-        /*
-         * TODO (1) store db contents in temp --- NOT YET
-         *      (2) drop db --- IMPLEMENTED
-         *      (3) create new db --- IMPLEMENTED 
-         *      (4) insert temp data in new db --- NOT YET
-         */
-        database.execSQL("DROP TABLE IF EXISTS " + TABLE_VOCABULARY);
-        this.onCreate(database);
+        for(int version = oldVersion + 1; version <= newVersion; version++)
+        {
+            Log.d(LogsManager.TAG, "MySQLiteHelper: onUpgrade. migrating to version=" + version);
+
+            migrate(database, version);
+        }
+    }
+
+    private void migrate(SQLiteDatabase database, int version)
+    {
+        switch(version)
+        {
+            case 2:
+                migrateToVersion2(database);
+                break;
+            default:
+                throw new IllegalStateException("No migration to database version " + version);
+        }
+    }
+
+    /**
+     * Version 2, built in a single pass over the vocabularies of version 1:
+     * <ul>
+     * <li>date_in stored as epoch milliseconds instead of formatted text, so that it sorts chronologically and its MAX is read from the index.</li>
+     * <li>the language name of each vocabulary replaced by the integer id of a row in the foreign language table, which is the enum's ordinal. Rows
+     * are smaller, and are read without parsing the language name.</li>
+     * <li>search keys of the english and foreign words, folded without diacritics and case, see {@link SearchKeys}. SQLite cannot fold them, so
+     * they are computed here for the existing vocabularies, and by VocabularyBulkWriter for new ones.</li>
+     * <li>indexes for the per-language and latest date_in queries.</li>
+     * <li>per-language vocabulary count and latest date_in, populated from the vocabularies and kept in sync by triggers.</li>
+     * </ul>
+     * SQLite cannot change a column type, so the vocabulary table is rebuilt, once. Ids are kept.
+     */
+    private void migrateToVersion2(SQLiteDatabase database)
+    {
+        String rebuiltTable = TABLE_VOCABULARY + "_version_2";
+
+        database.execSQL(CREATE_TABLE_FOREIGN_LANGUAGE);
+        insertForeignLanguages(database);
+
+        database.execSQL(String.format(CREATE_TABLE_VOCABULARY, rebuiltTable));
+        copyVocabulariesVersion1(database, rebuiltTable);
+
+        database.execSQL("DROP TABLE " + TABLE_VOCABULARY + ";");
+        database.execSQL("ALTER TABLE " + rebuiltTable + " RENAME TO " + TABLE_VOCABULARY + ";");
+
+        // Created once the rows are copied, so that they are built in one pass instead of updated per row.
+        database.execSQL(CREATE_INDEX_VOCABULARY_FOREIGN_LANGUAGE_DATE_IN);
+        database.execSQL(CREATE_INDEX_VOCABULARY_DATE_IN);
+        createVocabularyStatistics(database);
+    }
+
+    /**
+     * Copies the vocabularies of the version 1 table to the given table, with their date_in parsed, their language id and their search keys.
+     */
+    private void copyVocabulariesVersion1(SQLiteDatabase database, String table)
+    {
+        // Only a few distinct date_in exist, one per sync. Each is parsed once.
+        Map<String, Long> epochs = new HashMap<>();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT_DATABASE);
+
+        try(Cursor cursor = database.rawQuery(SELECT_VOCABULARIES_VERSION_1, null);
+            SQLiteStatement insertVocabulary = database.compileStatement(String.format(INSERT_VOCABULARY, table)))
+        {
+            while(cursor.moveToNext())
+            {
+                String englishWord = cursor.getString(1);
+                String foreignWord = cursor.getString(2);
+                Long dateIn = epochs.computeIfAbsent(cursor.getString(4), formattedDateIn -> parseDateInVersion1(formattedDateIn, formatter));
+
+                insertVocabulary.bindLong(1, cursor.getLong(0));
+                insertVocabulary.bindString(2, englishWord);
+                insertVocabulary.bindString(3, foreignWord);
+                insertVocabulary.bindLong(4, cursor.getLong(3));
+                insertVocabulary.bindLong(5, dateIn);
+                insertVocabulary.bindString(6, SearchKeys.fold(englishWord));
+                insertVocabulary.bindString(7, SearchKeys.fold(foreignWord));
+                insertVocabulary.executeInsert();
+            }
+        }
+    }
+
+    /**
+     * Inserts every ForeignLanguage not in the foreign language table yet. A migration appending a ForeignLanguage must call this.
+     */
+    private void insertForeignLanguages(SQLiteDatabase database)
+    {
+        try(SQLiteStatement insertForeignLanguage = database.compileStatement(INSERT_FOREIGN_LANGUAGE))
+        {
+            for(ForeignLanguage language : ForeignLanguage.values())
+            {
+                insertForeignLanguage.bindLong(1, language.getId());
+                insertForeignLanguage.bindString(2, language.getLanguage());
+                insertForeignLanguage.executeInsert();
+            }
+        }
     }
 
+    /**
+     * Creates the statistics table, populates it from the vocabularies and creates its triggers.
+     */
+    private void createVocabularyStatistics(SQLiteDatabase database)
+    {
+        database.execSQL(CREATE_TABLE_VOCABULARY_STATISTICS);
+        database.execSQL(POPULATE_TABLE_VOCABULARY_STATISTICS);
+
+        for(String createTrigger : CREATE_TRIGGERS_VOCABULARY_STATISTICS)
+        {
+            database.execSQL(createTrigger);
+        }
+    }
+
+    private long parseDateInVersion1(String dateIn, DateTimeFormatter formatter)
+    {
+        try
+        {
+            return LocalDateTime.parse(dateIn, formatter).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        catch(DateTimeParseException e)
+        {
+            Log.e(LogsManager.TAG, "MySQLiteHelper: parseDateInVersion1. Unparseable date_in=" + dateIn, e);
+            return 0;
+        }
+    }
 }
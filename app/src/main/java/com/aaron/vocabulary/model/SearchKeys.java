@@ -0,0 +1,61 @@
+package com.aaron.vocabulary.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Folds words to the keys they are searched by: decomposed, without diacritics, and lower case. "Thâu-ke" and "thau-ke" have the same key.
+ * Compatibility characters are decomposed too, so that the nasal "ⁿ" of Hokkien romanization is searched as "n": "pháiⁿ" has the key "phain".
+ * Keys are computed once per vocabulary, when it is written to the database, and the searched text is folded the same way before it is compared.
+ */
+final class SearchKeys
+{
+    private SearchKeys()
+    {
+    }
+
+    /**
+     * Returns the search key of the given text.
+     *
+     * @param text the text to fold
+     * @return the search key, the same String if the text is already folded
+     */
+    static String fold(String text)
+    {
+        if(isFolded(text))
+        {
+            return text;
+        }
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+
+        for(int i = 0; i < decomposed.length(); i++)
+        {
+            char c = decomposed.charAt(i);
+            if(Character.getType(c) != Character.NON_SPACING_MARK)
+            {
+                key.append(c);
+            }
+        }
+
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Most english words are plain lower case ASCII, they are their own key.
+     */
+    private static boolean isFolded(String text)
+    {
+        for(int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if(c >= 128 || (c >= 'A' && c <= 'Z'))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
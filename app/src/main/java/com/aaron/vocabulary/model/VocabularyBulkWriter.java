@@ -0,0 +1,147 @@
+package com.aaron.vocabulary.model;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.UpsertResult;
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import java.io.Closeable;
+
+import static com.aaron.vocabulary.model.MySQLiteHelper.Column;
+import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY;
+
+/**
+ * Writes vocabularies to the database through compiled statements that are bound and re-executed for every row.
+ * Must be used inside a transaction owned by the caller, and closed before that transaction ends.
+ */
+class VocabularyBulkWriter implements Closeable
+{
+    private static final String INSERT_VOCABULARY = "INSERT INTO " + TABLE_VOCABULARY + "(" +
+            Column.english_word.name() + ", " +
+            Column.foreign_word.name() + ", " +
+            Column.foreign_language_id.name() + ", " +
+            Column.date_in.name() + ", " +
+            Column.english_search_key.name() + ", " +
+            Column.foreign_search_key.name() +
+            ") VALUES(?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OR_IGNORE_VOCABULARY = INSERT_VOCABULARY.replaceFirst("INSERT", "INSERT OR IGNORE");
+
+    private static final String UPDATE_CHANGED_VOCABULARY = "UPDATE " + TABLE_VOCABULARY + " SET " +
+            Column.foreign_language_id.name() + " = ?, " +
+            Column.date_in.name() + " = ?" +
+            " WHERE " + Column.english_word.name() + " = ? AND " +
+            Column.foreign_word.name() + " = ? AND " +
+            Column.foreign_language_id.name() + " <> ?";
+
+    private final SQLiteDatabase db;
+    private final long dateIn;
+
+    private SQLiteStatement insertStatement;
+    private SQLiteStatement insertOrIgnoreStatement;
+    private SQLiteStatement updateChangedStatement;
+
+    /**
+     * Default constructor.
+     *
+     * @param db     the database, with a transaction already begun
+     * @param dateIn the date_in in epoch milliseconds, shared by every row written in this transaction
+     */
+    VocabularyBulkWriter(SQLiteDatabase db, long dateIn)
+    {
+        this.db = db;
+        this.dateIn = dateIn;
+    }
+
+    /**
+     * Inserts the vocabulary. The vocabulary is assumed to not exist yet in the database.
+     *
+     * @param language   the foreign language of the vocabulary
+     * @param vocabulary the vocabulary to insert
+     */
+    void insert(ForeignLanguage language, Vocabulary vocabulary)
+    {
+        if(insertStatement == null)
+        {
+            insertStatement = db.compileStatement(INSERT_VOCABULARY);
+        }
+
+        bindVocabulary(insertStatement, language, vocabulary);
+        insertStatement.executeInsert();
+    }
+
+    /**
+     * Inserts the vocabulary if it does not exist yet, else updates it if its foreign language changed.
+     *
+     * @param language   the foreign language of the vocabulary
+     * @param vocabulary the vocabulary to insert or update
+     * @param result     the counters to increment depending on the outcome
+     */
+    void upsert(ForeignLanguage language, Vocabulary vocabulary, UpsertResult result)
+    {
+        if(insertOrIgnoreStatement == null)
+        {
+            insertOrIgnoreStatement = db.compileStatement(INSERT_OR_IGNORE_VOCABULARY);
+            updateChangedStatement = db.compileStatement(UPDATE_CHANGED_VOCABULARY);
+        }
+
+        bindVocabulary(insertOrIgnoreStatement, language, vocabulary);
+
+        // Returns -1 if a vocabulary with the same english_word and foreign_word already exists.
+        if(insertOrIgnoreStatement.executeInsert() != -1)
+        {
+            result.incrementInsertedCount();
+            return;
+        }
+
+        // Only touch the existing row if its non-key column actually changed, so that its date_in is preserved otherwise.
+        updateChangedStatement.clearBindings();
+        updateChangedStatement.bindLong(1, language.getId());
+        updateChangedStatement.bindLong(2, dateIn);
+        updateChangedStatement.bindString(3, vocabulary.getEnglishWord());
+        updateChangedStatement.bindString(4, vocabulary.getForeignWord());
+        updateChangedStatement.bindLong(5, language.getId());
+
+        if(updateChangedStatement.executeUpdateDelete() > 0)
+        {
+            result.incrementUpdatedCount();
+        }
+        else
+        {
+            result.incrementUnchangedCount();
+        }
+    }
+
+    private void bindVocabulary(SQLiteStatement statement, ForeignLanguage language, Vocabulary vocabulary)
+    {
+        statement.clearBindings();
+        statement.bindString(1, vocabulary.getEnglishWord());
+        statement.bindString(2, vocabulary.getForeignWord());
+        statement.bindLong(3, language.getId());
+        statement.bindLong(4, dateIn);
+        // Folded once here, so that neither the searches nor loading the vocabularies have to.
+        statement.bindString(5, SearchKeys.fold(vocabulary.getEnglishWord()));
+        statement.bindString(6, SearchKeys.fold(vocabulary.getForeignWord()));
+    }
+
+    /**
+     * Releases the compiled statements.
+     */
+    @Override
+    public void close()
+    {
+        closeStatement(insertStatement);
+        closeStatement(insertOrIgnoreStatement);
+        closeStatement(updateChangedStatement);
+    }
+
+    private void closeStatement(SQLiteStatement statement)
+    {
+        if(statement != null)
+        {
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.aaron.vocabulary.model;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.aaron.vocabulary.bean.ForeignLanguage;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import io.reactivex.schedulers.Schedulers;
+
+import static com.aaron.vocabulary.model.MySQLiteHelper.Column;
+import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY;
+
+/**
+ * Read-only list of the vocabularies of one foreign language, loaded from the database in fixed-size windows as its items are accessed.
+ * Only a few windows are kept in memory. Accessing an item near the edge of its window prefetches the neighbouring window in the background.
+ * <p>
+ * The ids of the vocabularies, in order, are read once when the list is created, from the (foreign_language_id, date_in) index alone. A window
+ * is then read by the ids of its items, so reading any window costs the same, and the items and their order stay those of the time the list was
+ * created even if vocabularies are inserted or updated meanwhile. Vocabularies are only deleted all at once, a list created before has empty words
+ * until VocabularyManager replaces it, as it does after every write.
+ */
+class VocabularyCursorList extends VocabularyList
+{
+    static final int WINDOW_SIZE = 100;
+    private static final int MAX_WINDOWS = 5;
+    private static final int PREFETCH_DISTANCE = WINDOW_SIZE / 4;
+
+    // Ordered the same way as the (foreign_language_id, date_in) index, whose entries also hold the id, so the table itself is not read.
+    private static final String SELECT_IDS = "SELECT " +
+            Column.id.name() +
+            " FROM " + TABLE_VOCABULARY +
+            " WHERE " + Column.foreign_language_id.name() + " = ?" +
+            " ORDER BY " + Column.date_in.name() + ", " + Column.id.name();
+
+    // Same order as SELECT_IDS.
+    private static final String SELECT_SEARCH_KEYS = "SELECT " +
+            Column.id.name() + ", " +
+            Column.english_word.name() + ", " +
+            Column.foreign_word.name() + ", " +
+            Column.english_search_key.name() + ", " +
+            Column.foreign_search_key.name() +
+            " FROM " + TABLE_VOCABULARY +
+            " WHERE " + Column.foreign_language_id.name() + " = ?" +
+            " ORDER BY " + Column.date_in.name() + ", " + Column.id.name();
+
+    // Followed by one parameter per id of the window.
+    private static final String SELECT_WINDOW = "SELECT " +
+            Column.id.name() + ", " +
+            Column.english_word.name() + ", " +
+            Column.foreign_word.name() +
+            " FROM " + TABLE_VOCABULARY +
+            " WHERE " + Column.id.name() + " IN (";
+
+    private final SQLiteDatabase db;
+    private final int[] ids;
+
+    // Least recently used window first. Each window is packed, the same as a whole language in CompactVocabularyList.
+    private final Map<Integer, CompactVocabularyList> windows = new LinkedHashMap<>(MAX_WINDOWS + 1, 1f, true);
+    private final Set<Integer> prefetchingWindows = new HashSet<>();
+
+    /**
+     * Default constructor. Only reads the ids of the vocabularies of the language, no vocabulary is loaded yet. Not on the main thread.
+     *
+     * @param db       the shared database
+     * @param language the foreign language of the vocabularies
+     */
+    VocabularyCursorList(SQLiteDatabase db, ForeignLanguage language)
+    {
+        super(language);
+
+        this.db = db;
+        this.ids = queryIds(language);
+    }
+
+    private int[] queryIds(ForeignLanguage language)
+    {
+        try(Cursor cursor = db.rawQuery(SELECT_IDS, new String[] { String.valueOf(language.getId()) }))
+        {
+            int[] languageIds = new int[cursor.getCount()];
+            for(int i = 0; i < languageIds.length && cursor.moveToNext(); i++)
+            {
+                languageIds[i] = cursor.getInt(0);
+            }
+
+            return languageIds;
+        }
+    }
+
+    @Override
+    public long getId(int index)
+    {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    @Override
+    public String getEnglishWord(int index)
+    {
+        return getWindowOf(index).getEnglishWord(index % WINDOW_SIZE);
+    }
+
+    @Override
+    public String getForeignWord(int index)
+    {
+        return getWindowOf(index).getForeignWord(index % WINDOW_SIZE);
+    }
+
+    private CompactVocabularyList getWindowOf(int index)
+    {
+        checkIndex(index);
+
+        int window = index / WINDOW_SIZE;
+        int indexInWindow = index % WINDOW_SIZE;
+        CompactVocabularyList vocabularies = getWindow(window);
+
+        if(indexInWindow >= WINDOW_SIZE - PREFETCH_DISTANCE)
+        {
+            prefetchWindow(window + 1);
+        }
+        else if(indexInWindow < PREFETCH_DISTANCE)
+        {
+            prefetchWindow(window - 1);
+        }
+
+        return vocabularies;
+    }
+
+    @Override
+    public int size()
+    {
+        return ids.length;
+    }
+
+    /**
+     * Reads the search keys of every item in a single query, in the order of the list, instead of window by window. The windows are not touched.
+     * Vocabularies written since the list was created are matched to their item by id, or skipped if not in the list.
+     */
+    @Override
+    VocabularySearchIndex buildSearchIndex()
+    {
+        VocabularySearchIndex.Builder builder = new VocabularySearchIndex.Builder(ids.length);
+        int[] sortedIds = null;
+        int[] indexesOfSortedIds = null;
+        int next = 0;
+
+        try(Cursor cursor = db.rawQuery(SELECT_SEARCH_KEYS, new String[] { String.valueOf(getForeignLanguage().getId()) }))
+        {
+            while(cursor.moveToNext())
+            {
+                int id = cursor.getInt(0);
+                int index;
+
+                if(next < ids.length && ids[next] == id)
+                {
+                    index = next++;
+                }
+                else
+                {
+                    if(sortedIds == null)
+                    {
+                        indexesOfSortedIds = sortIndexesById();
+                        sortedIds = new int[ids.length];
+                        for(int i = 0; i < ids.length; i++)
+                        {
+                            sortedIds[i] = ids[indexesOfSortedIds[i]];
+                        }
+                    }
+
+                    int position = Arrays.binarySearch(sortedIds, id);
+                    if(position < 0)
+                    {
+                        continue;
+                    }
+                    index = indexesOfSortedIds[position];
+                }
+
+                // Only vocabularies inserted without VocabularyBulkWriter have no keys.
+                String englishSearchKey = cursor.isNull(3) ? SearchKeys.fold(cursor.getString(1)) : cursor.getString(3);
+                String foreignSearchKey = cursor.isNull(4) ? SearchKeys.fold(cursor.getString(2)) : cursor.getString(4);
+                builder.add(index, englishSearchKey, foreignSearchKey);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private int[] sortIndexesById()
+    {
+        Integer[] indexes = new Integer[ids.length];
+        for(int i = 0; i < indexes.length; i++)
+        {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, Comparator.comparingInt(index -> ids[index]));
+
+        int[] sortedIndexes = new int[indexes.length];
+        for(int i = 0; i < indexes.length; i++)
+        {
+            sortedIndexes[i] = indexes[i];
+        }
+
+        return sortedIndexes;
+    }
+
+    private CompactVocabularyList getWindow(int window)
+    {
+        synchronized(windows)
+        {
+            CompactVocabularyList vocabularies = windows.get(window);
+            if(vocabularies != null)
+            {
+                return vocabularies;
+            }
+        }
+
+        CompactVocabularyList vocabularies = loadWindow(window);
+        putWindow(window, vocabularies);
+
+        return vocabularies;
+    }
+
+    private void prefetchWindow(int window)
+    {
+        if(window < 0 || window * WINDOW_SIZE >= ids.length)
+        {
+            return;
+        }
+
+        synchronized(windows)
+        {
+            if(windows.containsKey(window) || !prefetchingWindows.add(window))
+            {
+                return;
+            }
+        }
+
+        Schedulers.io().scheduleDirect(() ->
+        {
+            CompactVocabularyList vocabularies = loadWindow(window);
+            putWindow(window, vocabularies);
+
+            synchronized(windows)
+            {
+                prefetchingWindows.remove(window);
+            }
+        });
+    }
+
+    private void putWindow(int window, CompactVocabularyList vocabularies)
+    {
+        synchronized(windows)
+        {
+            windows.put(window, vocabularies);
+
+            if(windows.size() > MAX_WINDOWS)
+            {
+                Integer leastRecentlyUsed = windows.keySet().iterator().next();
+                windows.remove(leastRecentlyUsed);
+            }
+        }
+    }
+
+    private CompactVocabularyList loadWindow(int window)
+    {
+        int offset = window * WINDOW_SIZE;
+        int count = Math.min(WINDOW_SIZE, ids.length - offset);
+        String[] englishWords = new String[count];
+        String[] foreignWords = new String[count];
+        Map<Integer, Integer> indexesById = new HashMap<>(count * 2);
+        StringBuilder sql = new StringBuilder(SELECT_WINDOW);
+        String[] args = new String[count];
+
+        for(int i = 0; i < count; i++)
+        {
+            indexesById.put(ids[offset + i], i);
+            sql.append(i == 0 ? "?" : ", ?");
+            args[i] = String.valueOf(ids[offset + i]);
+        }
+        sql.append(")");
+
+        // Primary key lookups, returned in any order.
+        try(Cursor cursor = db.rawQuery(sql.toString(), args))
+        {
+            while(cursor.moveToNext())
+            {
+                int i = indexesById.get(cursor.getInt(0));
+                englishWords[i] = cursor.getString(1);
+                foreignWords[i] = cursor.getString(2);
+            }
+        }
+
+        CompactVocabularyList.Builder builder = new CompactVocabularyList.Builder(getForeignLanguage(), count);
+        for(int i = 0; i < count; i++)
+        {
+            // Deleted since this list was created.
+            boolean isDeleted = englishWords[i] == null;
+            builder.add(ids[offset + i], isDeleted ? "" : englishWords[i], isDeleted ? "" : foreignWords[i]);
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.aaron.vocabulary.model;
+
+import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.Vocabulary;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads the vocabularies of the web response token by token, handing each one over as soon as it is read.
+ * Format: {"languages": {"Hokkien": [{"english_word": "", "foreign_word": ""}]}}.
+ * Unknown fields and languages are skipped.
+ */
+final class VocabularyJsonReader
+{
+    private static final String FIELD_LANGUAGES = "languages";
+    private static final String FIELD_ENGLISH_WORD = "english_word";
+    private static final String FIELD_FOREIGN_WORD = "foreign_word";
+
+    // Thread-safe once configured, and costly to create.
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private VocabularyJsonReader()
+    {
+    }
+
+    /**
+     * Reads every vocabulary of the JSON. The same Vocabulary instance is given for every row, so the consumer must not keep it.
+     *
+     * @param json     the JSON of the web response, not closed
+     * @param consumer receives the foreign language and vocabulary of each row, in the order they are read
+     * @return the number of vocabularies read
+     * @throws IOException if the JSON cannot be read, or is not an object
+     */
+    static int read(InputStream json, BiConsumer<ForeignLanguage, Vocabulary> consumer) throws IOException
+    {
+        int count = 0;
+
+        try(JsonParser parser = JSON_FACTORY.createParser(json))
+        {
+            if(parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                throw new IOException("Expected a JSON object, got " + parser.getCurrentToken());
+            }
+
+            while(parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if(FIELD_LANGUAGES.equals(field) && value == JsonToken.START_OBJECT)
+                {
+                    count += readLanguages(parser, consumer);
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private static int readLanguages(JsonParser parser, BiConsumer<ForeignLanguage, Vocabulary> consumer) throws IOException
+    {
+        int count = 0;
+        Vocabulary vocabulary = new Vocabulary();
+
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            ForeignLanguage language = toForeignLanguage(parser.getCurrentName());
+            JsonToken value = parser.nextToken();
+
+            if(language == null || value != JsonToken.START_ARRAY)
+            {
+                parser.skipChildren();
+                continue;
+            }
+
+            vocabulary.setForeignLanguage(language);
+
+            while(parser.nextToken() == JsonToken.START_OBJECT)
+            {
+                readVocabulary(parser, vocabulary);
+                consumer.accept(language, vocabulary);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static void readVocabulary(JsonParser parser, Vocabulary vocabulary) throws IOException
+    {
+        vocabulary.setEnglishWord(null);
+        vocabulary.setForeignWord(null);
+
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+
+            if(FIELD_ENGLISH_WORD.equals(field))
+            {
+                vocabulary.setEnglishWord(parser.getValueAsString());
+            }
+            else if(FIELD_FOREIGN_WORD.equals(field))
+            {
+                vocabulary.setForeignWord(parser.getValueAsString());
+            }
+            else
+            {
+                parser.skipChildren();
+            }
+        }
+
+        if(vocabulary.getEnglishWord() == null || vocabulary.getForeignWord() == null)
+        {
+            throw new IOException("Vocabulary without english_word or foreign_word at " + parser.getCurrentLocation());
+        }
+    }
+
+    private static ForeignLanguage toForeignLanguage(String name)
+    {
+        try
+        {
+            return ForeignLanguage.valueOf(name);
+        }
+        catch(IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.aaron.vocabulary.model;
+
+import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of the vocabularies of one foreign language, whose words are read by index without creating a Vocabulary for each item.
+ * {@link #get(int)} is only a convenience that creates a new Vocabulary on every call.
+ */
+public abstract class VocabularyList extends AbstractList<Vocabulary> implements RandomAccess
+{
+    private final ForeignLanguage foreignLanguage;
+    private volatile VocabularySearchIndex searchIndex;
+
+    protected VocabularyList(ForeignLanguage foreignLanguage)
+    {
+        this.foreignLanguage = foreignLanguage;
+    }
+
+    /**
+     * Returns the english word of the vocabulary at the given index.
+     */
+    public abstract String getEnglishWord(int index);
+
+    /**
+     * Returns the foreign word of the vocabulary at the given index.
+     */
+    public abstract String getForeignWord(int index);
+
+    /**
+     * Returns the search key of the english word at the given index, see {@link SearchKeys}. Folded on each call, unless the list stores the keys.
+     */
+    public String getEnglishSearchKey(int index)
+    {
+        return SearchKeys.fold(getEnglishWord(index));
+    }
+
+    /**
+     * Returns the search key of the foreign word at the given index, see {@link SearchKeys}. Folded on each call, unless the list stores the keys.
+     */
+    public String getForeignSearchKey(int index)
+    {
+        return SearchKeys.fold(getForeignWord(index));
+    }
+
+    /**
+     * Returns the id of the vocabulary at the given index, unique in this list. The id in the database if the list was read from it.
+     */
+    public abstract long getId(int index);
+
+    /**
+     * Returns the foreign language of every vocabulary of this list.
+     */
+    public ForeignLanguage getForeignLanguage()
+    {
+        return this.foreignLanguage;
+    }
+
+    /**
+     * Returns the search index of this list, built on the first call by reading every item. Call it off the main thread first for a large list.
+     */
+    public VocabularySearchIndex getSearchIndex()
+    {
+        VocabularySearchIndex index = this.searchIndex;
+        if(index == null)
+        {
+            synchronized(this)
+            {
+                index = this.searchIndex;
+                if(index == null)
+                {
+                    index = buildSearchIndex();
+                    this.searchIndex = index;
+                }
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Builds the search index by reading the search keys of every item by index. Overridden by lists reading them faster all at once.
+     */
+    VocabularySearchIndex buildSearchIndex()
+    {
+        return VocabularySearchIndex.build(this);
+    }
+
+    @Override
+    public Vocabulary get(int index)
+    {
+        return new Vocabulary(getEnglishWord(index), getForeignWord(index), this.foreignLanguage);
+    }
+
+    /**
+     * Throws IndexOutOfBoundsException if the index is not in this list.
+     */
+    protected void checkIndex(int index)
+    {
+        if(index < 0 || index >= size())
+        {
+            throw new IndexOutOfBoundsException("index=" + index + " size=" + size());
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package com.aaron.vocabulary.model;
 
-import android.content.ContentValues;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
+import android.util.LruCache;
 
 import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.UpsertResult;
 import com.aaron.vocabulary.bean.Vocabulary;
 
+import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneId;
 import org.threeten.bp.format.DateTimeFormatter;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
 
-import static com.aaron.vocabulary.model.MySQLiteHelper.COLUMN_COUNT;
 import static com.aaron.vocabulary.model.MySQLiteHelper.Column;
+import static com.aaron.vocabulary.model.MySQLiteHelper.StatisticsColumn;
 import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY;
+import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY_STATISTICS;
 
 /**
  * Handles the web call to retrieve vocabularies in JSON object representation. Handles the data storage of vocabularies.
@@ -31,22 +48,54 @@ public class VocabularyManager
     public static final String DATE_FORMAT_DATABASE = "MMMM d, yyyy hh:mm:ss a";
     public static final String DATE_FORMAT_WEB = "yyyy-MM-dd HH:mm:ss";
 
+    public static final long NO_LAST_UPDATED = -1;
+
+    // Number of vocabularies written between each progress report of a sync.
+    public static final int PROGRESS_INTERVAL = 500;
+
+    // Formatters are only built once per format, date_in is formatted on every sync request and About screen.
+    private static final Map<String, DateTimeFormatter> DATE_TIME_FORMATTERS = new ConcurrentHashMap<>();
+
+    private static final String SNAPSHOT_DIRECTORY = "vocabulary_snapshots";
+
+    // Up to an eighth of the heap limit, the mapped pages of a snapshot are not in the heap but still count in the memory of the process.
+    // The search index of a snapshot is counted too, built or not, since the size of a cached snapshot is only computed when it is put.
+    private static final int MAX_CACHE_SIZE = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE);
+
+    // Snapshots opened by any VocabularyManager of the process, so that getting the list again does not read the disk until the vocabularies change.
+    // Cursor lists are not cached, the snapshot that replaces them is written right after they are created.
+    private static final LruCache<ForeignLanguage, VocabularySnapshot> SNAPSHOT_CACHE = new LruCache<ForeignLanguage, VocabularySnapshot>(MAX_CACHE_SIZE)
+    {
+        @Override
+        protected int sizeOf(ForeignLanguage language, VocabularySnapshot snapshot)
+        {
+            return (int) Math.min(snapshot.getMemorySize(), Integer.MAX_VALUE);
+        }
+    };
+    // Incremented on every invalidation, guarded by SNAPSHOT_CACHE. A snapshot opened before an invalidation is not cached.
+    private static int cacheGeneration;
+
+    // Emits the name of the table each time a write to it ends, from the writing thread.
+    private static final FlowableProcessor<String> TABLE_CHANGES = PublishProcessor.<String> create().toSerialized();
+
     private MySQLiteHelper dbHelper;
-    private LocalDateTime dateIn;
+    private File snapshotDirectory;
 
     /**
-     * Default constructor
+     * Default constructor. Uses the database shared by the whole process, which is never closed here.
      *
      * @param context  the current context
      */
     public VocabularyManager(Context context)
     {
-        this.dbHelper = new MySQLiteHelper(context);
-        this.dateIn = LocalDateTime.now();
+        this.dbHelper = MySQLiteHelper.getInstance(context);
+        this.snapshotDirectory = new File(context.getCacheDir(), SNAPSHOT_DIRECTORY);
     }
 
     /**
      * Deletes all vocabularies and saves the given lists of vocabularies to the local database.
+     * Then rewrites the snapshot file of every foreign language before notifying the observers, see {@link #writeVocabularySnapshots()}. Must not be
+     * called on the main thread.
      *
      * @param vocabularyMap the vocabularies to be stored
      * @return true on success, else false
@@ -57,16 +106,21 @@ public class VocabularyManager
 
         try
         {
-            db.beginTransaction();
+            db.beginTransactionNonExclusive();
             // Delete vocabularies. To ensure no duplicates, if existing vocabularies are modified in the server.
             db.delete(TABLE_VOCABULARY, null, null);
 
-            for(Map.Entry<ForeignLanguage, ArrayList<Vocabulary>> entry : vocabularyMap.entrySet())
+            try(VocabularyBulkWriter writer = new VocabularyBulkWriter(db, currentDateIn()))
             {
-                ForeignLanguage language = entry.getKey();
-                ArrayList<Vocabulary> vocabularyList = entry.getValue();
+                for(Map.Entry<ForeignLanguage, ArrayList<Vocabulary>> entry : vocabularyMap.entrySet())
+                {
+                    ForeignLanguage language = entry.getKey();
 
-                insertVocabularyListPerCategoryToDatabase(language, vocabularyList, db);
+                    for(Vocabulary vocabulary : entry.getValue())
+                    {
+                        writer.insert(language, vocabulary);
+                    }
+                }
             }
 
             db.setTransactionSuccessful();
@@ -74,31 +128,128 @@ public class VocabularyManager
         finally
         {
             db.endTransaction();
-            db.close();
         }
 
+        writeSnapshotsAndNotify();
+
         LogsManager.log(CLASS_NAME, "saveToDisk", "");
 
         return true;
     }
 
-    private void insertVocabularyListPerCategoryToDatabase(ForeignLanguage language, ArrayList<Vocabulary> vocabularyList, SQLiteDatabase db)
+    /**
+     * Applies the given lists of vocabularies to the local database, keyed by english_word and foreign_word.
+     * New vocabularies are inserted, vocabularies whose foreign language changed are updated, and vocabularies that are not in the given map are left untouched.
+     * If any vocabulary changed, then rewrites the snapshot file of every foreign language before notifying the observers, see
+     * {@link #writeVocabularySnapshots()}. Must not be called on the main thread.
+     *
+     * @param vocabularyMap the vocabularies to be stored
+     * @return the number of inserted, updated and unchanged vocabularies
+     */
+    public UpsertResult upsertVocabulariesInDisk(final EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap)
     {
-        for(Vocabulary vocabulary : vocabularyList)
+        UpsertResult result = new UpsertResult();
+        SQLiteDatabase db = this.dbHelper.getWritableDatabase();
+
+        try
+        {
+            db.beginTransactionNonExclusive();
+
+            try(VocabularyBulkWriter writer = new VocabularyBulkWriter(db, currentDateIn()))
+            {
+                for(Map.Entry<ForeignLanguage, ArrayList<Vocabulary>> entry : vocabularyMap.entrySet())
+                {
+                    ForeignLanguage language = entry.getKey();
+
+                    for(Vocabulary vocabulary : entry.getValue())
+                    {
+                        writer.upsert(language, vocabulary, result);
+                    }
+                }
+            }
+
+            db.setTransactionSuccessful();
+        }
+        finally
         {
-            insertVocabularyToDatabase(language, vocabulary, db);
+            db.endTransaction();
         }
+
+        writeSnapshotsAndNotifyIfChanged(result);
+
+        LogsManager.log(CLASS_NAME, "upsertVocabulariesInDisk", "result=" + result);
+
+        return result;
+    }
+
+    /**
+     * Same as {@link #upsertVocabulariesInDisk(EnumMap)}, but reads the vocabularies from the JSON of the web response while writing them.
+     * Each vocabulary is written as soon as it is parsed, so memory use does not depend on the size of the response.
+     * All vocabularies are written in a single transaction: the last updated date is read from the vocabularies, so a partially applied response would
+     * make the next sync skip the rest of it.
+     *
+     * @param json the JSON of the web response, not closed
+     * @return the number of inserted, updated and unchanged vocabularies
+     * @throws IOException if the JSON cannot be read, in which case nothing is written
+     */
+    public UpsertResult upsertVocabulariesFromJson(final InputStream json) throws IOException
+    {
+        return upsertVocabulariesFromJson(json, writtenCount -> {});
     }
 
-    private void insertVocabularyToDatabase(ForeignLanguage language, Vocabulary vocabulary, SQLiteDatabase db)
+    /**
+     * Same as {@link #upsertVocabulariesFromJson(InputStream)}, reporting the progress every {@link #PROGRESS_INTERVAL} vocabularies.
+     * Must not be called on the main thread. The transaction does not block readers, which use their own connection in write-ahead logging mode.
+     * The snapshots are rewritten once the transaction is committed, before the observers are notified.
+     *
+     * @param json       the JSON of the web response, not closed
+     * @param onProgress receives the number of vocabularies written so far, on the calling thread
+     * @return the number of inserted, updated and unchanged vocabularies
+     * @throws IOException if the JSON cannot be read, in which case nothing is written
+     */
+    public UpsertResult upsertVocabulariesFromJson(final InputStream json, final IntConsumer onProgress) throws IOException
     {
-        ContentValues values = new ContentValues();
-        values.put(Column.english_word.name(), vocabulary.getEnglishWord());
-        values.put(Column.foreign_word.name(), vocabulary.getForeignWord());
-        values.put(Column.foreign_language.name(), language.getLanguage());
-        values.put(Column.date_in.name(), dateIn.format(DateTimeFormatter.ofPattern(DATE_FORMAT_DATABASE)));
+        UpsertResult result = new UpsertResult();
+        SQLiteDatabase db = this.dbHelper.getWritableDatabase();
+
+        try
+        {
+            db.beginTransactionNonExclusive();
+
+            try(VocabularyBulkWriter writer = new VocabularyBulkWriter(db, currentDateIn()))
+            {
+                VocabularyJsonReader.read(json, (language, vocabulary) ->
+                {
+                    writer.upsert(language, vocabulary, result);
+
+                    int writtenCount = result.getChangedCount() + result.getUnchangedCount();
+                    if(writtenCount % PROGRESS_INTERVAL == 0)
+                    {
+                        onProgress.accept(writtenCount);
+                    }
+                });
+            }
 
-        db.insert(TABLE_VOCABULARY, null, values);
+            db.setTransactionSuccessful();
+        }
+        finally
+        {
+            db.endTransaction();
+        }
+
+        writeSnapshotsAndNotifyIfChanged(result);
+
+        LogsManager.log(CLASS_NAME, "upsertVocabulariesFromJson", "result=" + result);
+
+        return result;
+    }
+
+    /**
+     * Returns the current date in epoch milliseconds, to be shared by every vocabulary written in the same transaction.
+     */
+    private long currentDateIn()
+    {
+        return System.currentTimeMillis();
     }
 
     /**
@@ -111,20 +262,20 @@ public class VocabularyManager
     public ArrayList<Vocabulary> getVocabulariesFromDisk(final ForeignLanguage selectedLanguage)
     {
         ArrayList<Vocabulary> list;
-        try(SQLiteDatabase db = this.dbHelper.getReadableDatabase())
-        {
-            String[] columns = new String[] { Column.english_word.name(), Column.foreign_word.name(), Column.foreign_language.name() };
-            String whereClause = "foreign_language = ?";
-            String[] whereArgs = new String[] { selectedLanguage.name() };
+        SQLiteDatabase db = this.dbHelper.getReadableDatabase();
+        String[] columns = new String[] { Column.english_word.name(), Column.foreign_word.name(), Column.foreign_language_id.name() };
+        String whereClause = Column.foreign_language_id.name() + " = ?";
+        String[] whereArgs = new String[] { String.valueOf(selectedLanguage.getId()) };
 
-            Cursor cursor = db.query(TABLE_VOCABULARY, columns, whereClause, whereArgs, null, null, null);
+        try(Cursor cursor = db.query(TABLE_VOCABULARY, columns, whereClause, whereArgs, null, null, null))
+        {
             list = new ArrayList<>(cursor.getCount());
 
             if(cursor.moveToFirst())
             {
                 do
                 {
-                    list.add(this.cursorToVocabulary(cursor));
+                    list.add(cursorToVocabulary(cursor));
                 } while(cursor.moveToNext());
             }
         }
@@ -134,44 +285,290 @@ public class VocabularyManager
         return list;
     }
 
+    /**
+     * Gets the vocabularies of the selected language as a list that only loads them as its items are accessed.
+     * Unlike {@link #getVocabulariesFromDisk(ForeignLanguage)}, no vocabulary is loaded until the list is read, regardless of the number of vocabularies.
+     * Read from the memory-mapped snapshot of the language if it is up to date, else paged from the database in windows while the snapshot is
+     * rewritten in the background for the next call.
+     * Opened snapshots are cached for the whole process, the disk is not read again until the vocabularies are saved or deleted.
+     * The list is only consistent until the next write, get a new one after the vocabularies are saved or deleted.
+     *
+     * @param selectedLanguage the foreign language of the vocabularies
+     * @return the paged list of vocabularies
+     */
+    public VocabularyList getPagedVocabulariesFromDisk(final ForeignLanguage selectedLanguage)
+    {
+        VocabularyList list = SNAPSHOT_CACHE.get(selectedLanguage);
+
+        if(list == null)
+        {
+            list = openVocabularySnapshot(selectedLanguage);
+        }
+
+        if(list == null)
+        {
+            list = new VocabularyCursorList(this.dbHelper.getReadableDatabase(), selectedLanguage);
+            Schedulers.io().scheduleDirect(() -> writeVocabularySnapshot(selectedLanguage));
+        }
+
+        LogsManager.log(CLASS_NAME, "getPagedVocabulariesFromDisk", "list_size=" + list.size() + " list_type=" + list.getClass().getSimpleName() + " cache=" +
+                SNAPSHOT_CACHE);
+
+        return list;
+    }
+
+    private VocabularySnapshot openVocabularySnapshot(ForeignLanguage language)
+    {
+        int generation;
+        synchronized(SNAPSHOT_CACHE)
+        {
+            generation = cacheGeneration;
+        }
+
+        VocabularySnapshot snapshot = VocabularySnapshot.open(this.dbHelper.getReadableDatabase(), language, getSnapshotFile(language));
+
+        synchronized(SNAPSHOT_CACHE)
+        {
+            if(snapshot != null && generation == cacheGeneration)
+            {
+                SNAPSHOT_CACHE.put(language, snapshot);
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Opens the snapshot of every foreign language but the selected one, writing it first if it is out of date, and reads it in memory. The next
+     * {@link #getPagedVocabulariesFromDisk(ForeignLanguage)} of these languages then returns the cached snapshot without waiting on the disk.
+     * Their search index is only built once they are displayed. Must not be called on the main thread, stops between languages if interrupted.
+     *
+     * @param selectedLanguage the foreign language already displayed, not prefetched
+     */
+    public void prefetchVocabularies(final ForeignLanguage selectedLanguage)
+    {
+        for(ForeignLanguage language : ForeignLanguage.values())
+        {
+            if(Thread.currentThread().isInterrupted())
+            {
+                LogsManager.log(CLASS_NAME, "prefetchVocabularies", "Interrupted before language=" + language);
+                return;
+            }
+
+            if(language == selectedLanguage || SNAPSHOT_CACHE.snapshot().containsKey(language))
+            {
+                continue;
+            }
+
+            VocabularySnapshot snapshot = openVocabularySnapshot(language);
+            if(snapshot == null)
+            {
+                writeVocabularySnapshot(language);
+                snapshot = openVocabularySnapshot(language);
+            }
+
+            if(snapshot != null)
+            {
+                snapshot.load();
+            }
+
+            LogsManager.log(CLASS_NAME, "prefetchVocabularies", "language=" + language + " isPrefetched=" + (snapshot != null));
+        }
+    }
+
+    /**
+     * Releases cached lists depending on the memory pressure. Half of the cache is released while the process is running low on memory, all of it when
+     * memory is critically low or the process is in the background.
+     *
+     * @param level the level given to {@link ComponentCallbacks2#onTrimMemory(int)}
+     */
+    public static void trimCache(int level)
+    {
+        if(level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL)
+        {
+            SNAPSHOT_CACHE.evictAll();
+        }
+        else if(level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+        {
+            SNAPSHOT_CACHE.trimToSize(SNAPSHOT_CACHE.maxSize() / 2);
+        }
+
+        LogsManager.log(CLASS_NAME, "trimCache", "level=" + level + " cache=" + SNAPSHOT_CACHE);
+    }
+
+    /**
+     * Returns the number of times a list was found in the process-wide cache of {@link #getPagedVocabulariesFromDisk(ForeignLanguage)}.
+     */
+    public static int getCacheHitCount()
+    {
+        return SNAPSHOT_CACHE.hitCount();
+    }
+
+    /**
+     * Returns the number of times a list was not found in the process-wide cache of {@link #getPagedVocabulariesFromDisk(ForeignLanguage)}.
+     */
+    public static int getCacheMissCount()
+    {
+        return SNAPSHOT_CACHE.missCount();
+    }
+
+    /**
+     * Removes every cached list, called after the vocabularies are written.
+     */
+    static void invalidateCache()
+    {
+        synchronized(SNAPSHOT_CACHE)
+        {
+            cacheGeneration++;
+            SNAPSHOT_CACHE.evictAll();
+        }
+    }
+
+    /**
+     * Clears the cache and notifies the observers of the vocabulary table, called once a write is ended.
+     */
+    private static void notifyVocabulariesWritten()
+    {
+        invalidateCache();
+        TABLE_CHANGES.onNext(TABLE_VOCABULARY);
+    }
+
+    /**
+     * Rewrites the snapshot of every foreign language, then notifies the observers, called once a save is committed. Notified observers open the new
+     * snapshots instead of paging the database while the snapshots are written a second time.
+     */
+    private void writeSnapshotsAndNotify()
+    {
+        writeVocabularySnapshots();
+        notifyVocabulariesWritten();
+    }
+
+    private void writeSnapshotsAndNotifyIfChanged(UpsertResult result)
+    {
+        if(result.getChangedCount() > 0)
+        {
+            writeSnapshotsAndNotify();
+        }
+    }
+
+    /**
+     * Same as {@link #getPagedVocabulariesFromDisk(ForeignLanguage)}, emitting the list once subscribed, then a new list each time the vocabularies of
+     * the language change. Writes that do not change the count or the latest date_in of the language emit nothing.
+     *
+     * @param selectedLanguage the foreign language of the vocabularies
+     * @return Flowable of the paged list of vocabularies, queried on the io scheduler
+     */
+    public Flowable<VocabularyList> observePagedVocabularies(final ForeignLanguage selectedLanguage)
+    {
+        return observeVocabularyTable(() -> VocabularySnapshot.readStamp(this.dbHelper.getReadableDatabase(), selectedLanguage))
+                .distinctUntilChanged(Arrays::equals)
+                .map(stamp -> getPagedVocabulariesFromDisk(selectedLanguage));
+    }
+
+    /**
+     * Same as {@link #getVocabulariesCount()}, emitting the counts once subscribed, then again each time they change.
+     *
+     * @return Flowable of the counts per foreign language, queried on the io scheduler
+     */
+    public Flowable<EnumMap<ForeignLanguage, Integer>> observeVocabulariesCount()
+    {
+        return observeVocabularyTable(this::getVocabulariesCount).distinctUntilChanged();
+    }
+
+    /**
+     * Same as {@link #getLastUpdated(String)}, emitting the date once subscribed, then again each time it changes.
+     *
+     * @param format the date format used in formatting the last_updated date
+     * @return Flowable of the formatted date, queried on the io scheduler
+     */
+    public Flowable<String> observeLastUpdated(final String format)
+    {
+        return observeVocabularyTable(() -> getLastUpdated(format)).distinctUntilChanged();
+    }
+
+    /**
+     * Runs the query once subscribed, then again after each write to the vocabulary table. Writes made while a query is running are coalesced into a
+     * single run of the query after it.
+     */
+    private static <T> Flowable<T> observeVocabularyTable(Callable<T> query)
+    {
+        return TABLE_CHANGES.filter(TABLE_VOCABULARY::equals)
+                .startWith(TABLE_VOCABULARY)
+                .onBackpressureLatest()
+                .observeOn(Schedulers.io(), false, 1)
+                .map(table -> query.call());
+    }
+
+    /**
+     * Rewrites the snapshot of every foreign language from the database, so that the next {@link #getPagedVocabulariesFromDisk(ForeignLanguage)} reads
+     * from them. Must not be called on the main thread, called by every save of the vocabularies.
+     */
+    void writeVocabularySnapshots()
+    {
+        for(ForeignLanguage language : ForeignLanguage.values())
+        {
+            writeVocabularySnapshot(language);
+        }
+    }
+
+    private void writeVocabularySnapshot(ForeignLanguage language)
+    {
+        try
+        {
+            boolean isWritten = VocabularySnapshot.write(this.dbHelper.getReadableDatabase(), language, getSnapshotFile(language));
+
+            LogsManager.log(CLASS_NAME, "writeVocabularySnapshot", "language=" + language + " isWritten=" + isWritten);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            // The snapshot is only a cache of the database, the vocabularies are still paged from the database without it.
+            LogsManager.log(CLASS_NAME, "writeVocabularySnapshot", "Error writing snapshot of language=" + language, e);
+        }
+    }
+
+    private File getSnapshotFile(ForeignLanguage language)
+    {
+        return new File(this.snapshotDirectory, language.getLanguage() + ".bin");
+    }
+
     /**
      * Retrieves the vocabulary from the cursor.
      *
      * @param cursor
-     *            the cursor resulting from a query
+     *            the cursor resulting from a query, with the english_word, foreign_word and foreign_language_id as its first columns
      * @return Vocabulary
      */
-    private Vocabulary cursorToVocabulary(final Cursor cursor)
+    public static Vocabulary cursorToVocabulary(final Cursor cursor)
     {
         String englishWord = cursor.getString(0);
         String foreignWord = cursor.getString(1);
-        ForeignLanguage foreignLanguage = ForeignLanguage.valueOf(cursor.getString(2));
+        ForeignLanguage foreignLanguage = ForeignLanguage.fromId(cursor.getInt(2));
 
         return new Vocabulary(englishWord, foreignWord, foreignLanguage);
     }
 
     /**
      * Gets the current vocabulary count per foreign languages, and returns them as an EnumMap.
+     * Read in a single query from the statistics table, which is maintained on every write.
      *
      * @return {@code EnumMap<ForeignLanguage, Integer>}
      */
     public EnumMap<ForeignLanguage, Integer> getVocabulariesCount()
     {
         EnumMap<ForeignLanguage, Integer> map = new EnumMap<>(ForeignLanguage.class);
-
-        try(SQLiteDatabase db = this.dbHelper.getReadableDatabase())
+        for(ForeignLanguage language : ForeignLanguage.values())
         {
-            String whereClause = "foreign_language = ?";
+            map.put(language, 0);
+        }
 
-            for(ForeignLanguage language : ForeignLanguage.values())
+        SQLiteDatabase db = this.dbHelper.getReadableDatabase();
+        String[] columns = new String[] { StatisticsColumn.foreign_language_id.name(), StatisticsColumn.vocabulary_count.name() };
+
+        try(Cursor cursor = db.query(TABLE_VOCABULARY_STATISTICS, columns, null, null, null, null, null))
+        {
+            while(cursor.moveToNext())
             {
-                try(Cursor cursor = db.query(TABLE_VOCABULARY, COLUMN_COUNT, whereClause, new String[] { language.name() }, null, null, null))
-                {
-                    if(cursor.moveToFirst())
-                    {
-                        map.put(language, cursor.getInt(0));
-                    }
-                }
+                map.put(ForeignLanguage.fromId(cursor.getInt(0)), cursor.getInt(1));
             }
         }
         LogsManager.log(CLASS_NAME, "getVocabulariesCount", "keys=" + map.keySet() + " values_size=" + map.values().size());
@@ -180,41 +577,51 @@ public class VocabularyManager
     }
 
     /**
-     * Gets the latest date_in of the vocabularies.
+     * Gets the latest date_in of the vocabularies, formatted with the given format.
      *
      * @param format
      *            the date format used in formatting the last_updated date
-     * @return String
+     * @return String, or {@link #DEFAULT_LAST_UPDATED} if there are no vocabularies
      */
     public String getLastUpdated(final String format)
     {
+        long lastUpdatedMillis = getLastUpdatedMillis();
         String lastUpdatedDate = DEFAULT_LAST_UPDATED;
-        try(SQLiteDatabase db = this.dbHelper.getReadableDatabase())
+
+        if(lastUpdatedMillis != NO_LAST_UPDATED)
         {
-            String[] columns = new String[] { Column.date_in.name(), };
-            String orderBy = "date_in DESC";
-            String limit = "1";
+            LocalDateTime date = LocalDateTime.ofInstant(Instant.ofEpochMilli(lastUpdatedMillis), ZoneId.systemDefault());
+            lastUpdatedDate = getDateTimeFormatter(format).format(date);
+        }
+
+        LogsManager.log(CLASS_NAME, "getLastUpdated", "lastUpdatedDate=" + lastUpdatedDate);
+
+        return lastUpdatedDate;
+    }
+
+    /**
+     * Gets the latest date_in of the vocabularies, in epoch milliseconds. Read from the statistics table, one row per foreign language.
+     *
+     * @return long, or {@link #NO_LAST_UPDATED} if there are no vocabularies
+     */
+    public long getLastUpdatedMillis()
+    {
+        SQLiteDatabase db = this.dbHelper.getReadableDatabase();
 
-            try(Cursor cursor = db.query(TABLE_VOCABULARY, columns, null, null, null, null, orderBy, limit))
+        try(Cursor cursor = db.rawQuery("SELECT MAX(" + StatisticsColumn.last_date_in.name() + ") FROM " + TABLE_VOCABULARY_STATISTICS, null))
+        {
+            if(cursor.moveToFirst() && !cursor.isNull(0))
             {
-                if(cursor.moveToFirst())
-                {
-                    lastUpdatedDate = cursor.getString(0);
-                }
-                else
-                {
-                    LogsManager.log(CLASS_NAME, "getLastUpdated", "lastUpdatedDate=" + lastUpdatedDate);
-                    return lastUpdatedDate;
-                }
+                return cursor.getLong(0);
             }
         }
-        // Parse String to LocalDateTime, to be able to format properly.
-        LocalDateTime date = LocalDateTime.parse(lastUpdatedDate, DateTimeFormatter.ofPattern(DATE_FORMAT_DATABASE));
-        lastUpdatedDate = DateTimeFormatter.ofPattern(format).format(date);
 
-        LogsManager.log(CLASS_NAME, "getLastUpdated", "lastUpdatedDate=" + lastUpdatedDate);
+        return NO_LAST_UPDATED;
+    }
 
-        return lastUpdatedDate;
+    private static DateTimeFormatter getDateTimeFormatter(String format)
+    {
+        return DATE_TIME_FORMATTERS.computeIfAbsent(format, DateTimeFormatter::ofPattern);
     }
 
     /**
@@ -222,10 +629,9 @@ public class VocabularyManager
      */
     public void deleteVocabulariesFromDisk()
     {
-        try(SQLiteDatabase db = this.dbHelper.getWritableDatabase())
-        {
-            int result = db.delete(TABLE_VOCABULARY, null, null);
-            Log.d(LogsManager.TAG, CLASS_NAME + ": deleteVocabularyFromDisk. affected=" + result);
-        }
+        SQLiteDatabase db = this.dbHelper.getWritableDatabase();
+        int result = db.delete(TABLE_VOCABULARY, null, null);
+        notifyVocabulariesWritten();
+        Log.d(LogsManager.TAG, CLASS_NAME + ": deleteVocabularyFromDisk. affected=" + result);
     }
 }
\ No newline at end of file
@@ -0,0 +1,478 @@
+package com.aaron.vocabulary.model;
+
+import com.aaron.vocabulary.bean.SearchType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Prefix search index of a vocabulary list. Maps each english sub-word, and each foreign word, to the index of its vocabulary in the list, sorted by
+ * word so that a prefix is found by binary search. Matches the same vocabularies as an english sub-word, or foreign word, starting with the searched
+ * text. Built once per list, a search then costs O(log n + k) for k matching words instead of a scan of the whole list.
+ * The words are indexed by their search keys, and the searched text is folded the same way once per search, so diacritics and case are ignored.
+ * <p>
+ * No String is kept per word: each word is a range of UTF-8 bytes, read from the memory-mapped file of a snapshot, or from a single byte array
+ * holding the keys of the other lists. Words are compared byte by byte, which keeps words starting with the same prefix next to each other.
+ */
+public final class VocabularySearchIndex
+{
+    // Separates the sub-words of an english word, e.g. "below / beneath / bottom".
+    static final String ENGLISH_WORD_SEPARATOR = " / ";
+    private static final byte[] ENGLISH_WORD_SEPARATOR_BYTES = ENGLISH_WORD_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+
+    // The start, end and index of the vocabulary of each word.
+    private static final int BYTES_PER_WORD = 3 * 4;
+
+    private final SortedWords englishWords;
+    private final SortedWords foreignWords;
+    // Length of the byte array of the keys, 0 if the words are read from a snapshot.
+    private final int keysLength;
+
+    private VocabularySearchIndex(SortedWords englishWords, SortedWords foreignWords, int keysLength)
+    {
+        this.englishWords = englishWords;
+        this.foreignWords = foreignWords;
+        this.keysLength = keysLength;
+    }
+
+    /**
+     * Reads every vocabulary of the list and sorts their words. Must not be called on the main thread for a large list.
+     *
+     * @param list the vocabularies to index
+     * @return VocabularySearchIndex
+     */
+    static VocabularySearchIndex build(VocabularyList list)
+    {
+        int size = list.size();
+        Builder builder = new Builder(size);
+
+        for(int i = 0; i < size; i++)
+        {
+            builder.add(i, list.getEnglishSearchKey(i), list.getForeignSearchKey(i));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of bytes used by an index of the given number of words, read from a snapshot.
+     *
+     * @param wordCount the number of english sub-words and foreign words
+     * @return the size in bytes
+     */
+    static long getMemorySize(int wordCount)
+    {
+        return (long) wordCount * BYTES_PER_WORD;
+    }
+
+    /**
+     * Returns the approximate number of bytes used by this index, including its copy of the keys.
+     */
+    long getMemorySize()
+    {
+        return getMemorySize(this.englishWords.size() + this.foreignWords.size()) + this.keysLength;
+    }
+
+    /**
+     * Collects the search keys of the vocabularies of a list, in any order. The keys are either copied in a byte array, or read from the
+     * memory-mapped file they are already in.
+     */
+    static final class Builder
+    {
+        private final ByteBuffer words;
+        private byte[] keys;
+        private int keysLength;
+        private final WordRanges englishWords;
+        private final WordRanges foreignWords;
+
+        /**
+         * Default constructor. The keys are given as Strings, and copied.
+         *
+         * @param expectedSize the expected number of vocabularies
+         */
+        Builder(int expectedSize)
+        {
+            this(null, expectedSize);
+            this.keys = new byte[Math.max(expectedSize, 1) * 16];
+        }
+
+        /**
+         * Constructor for keys already in the given buffer, given as ranges of it. The buffer is only read with absolute positions.
+         *
+         * @param words        the UTF-8 bytes of the keys
+         * @param expectedSize the expected number of vocabularies
+         */
+        Builder(ByteBuffer words, int expectedSize)
+        {
+            this.words = words;
+            this.englishWords = new WordRanges(expectedSize * 2);
+            this.foreignWords = new WordRanges(expectedSize);
+        }
+
+        /**
+         * Adds the search keys of the vocabulary at the given index of the list.
+         */
+        void add(int index, String englishSearchKey, String foreignSearchKey)
+        {
+            int start = 0;
+            int end;
+            while((end = englishSearchKey.indexOf(ENGLISH_WORD_SEPARATOR, start)) >= 0)
+            {
+                addKey(this.englishWords, index, englishSearchKey.substring(start, end));
+                start = end + ENGLISH_WORD_SEPARATOR.length();
+            }
+            addKey(this.englishWords, index, englishSearchKey.substring(start));
+
+            addKey(this.foreignWords, index, foreignSearchKey);
+        }
+
+        private void addKey(WordRanges ranges, int index, String key)
+        {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            int end = this.keysLength + bytes.length;
+            if(end > this.keys.length)
+            {
+                this.keys = Arrays.copyOf(this.keys, Math.max(end, this.keys.length * 2));
+            }
+
+            System.arraycopy(bytes, 0, this.keys, this.keysLength, bytes.length);
+            ranges.add(this.keysLength, end, index);
+            this.keysLength = end;
+        }
+
+        /**
+         * Adds the search keys of the vocabulary at the given index of the list, as ranges of the buffer of the builder.
+         */
+        void add(int index, int englishStart, int englishEnd, int foreignStart, int foreignEnd)
+        {
+            int start = englishStart;
+            for(int i = englishStart; i <= englishEnd - ENGLISH_WORD_SEPARATOR_BYTES.length; i++)
+            {
+                if(isSeparatorAt(i))
+                {
+                    this.englishWords.add(start, i, index);
+                    start = i + ENGLISH_WORD_SEPARATOR_BYTES.length;
+                    i = start - 1;
+                }
+            }
+            this.englishWords.add(start, englishEnd, index);
+
+            this.foreignWords.add(foreignStart, foreignEnd, index);
+        }
+
+        private boolean isSeparatorAt(int position)
+        {
+            for(int i = 0; i < ENGLISH_WORD_SEPARATOR_BYTES.length; i++)
+            {
+                if(this.words.get(position + i) != ENGLISH_WORD_SEPARATOR_BYTES[i])
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        VocabularySearchIndex build()
+        {
+            if(this.words != null)
+            {
+                return new VocabularySearchIndex(new SortedWords(this.words, this.englishWords), new SortedWords(this.words, this.foreignWords), 0);
+            }
+
+            ByteBuffer keyBuffer = ByteBuffer.wrap(Arrays.copyOf(this.keys, this.keysLength));
+            return new VocabularySearchIndex(new SortedWords(keyBuffer, this.englishWords), new SortedWords(keyBuffer, this.foreignWords),
+                    this.keysLength);
+        }
+    }
+
+    /**
+     * Searches the vocabularies with an english sub-word, or a foreign word, starting with the searched text.
+     *
+     * @param searched   the searched text, not empty
+     * @param searchType the language to search
+     * @return the indexes in the list of the matching vocabularies, in ascending order
+     */
+    public int[] search(String searched, SearchType searchType)
+    {
+        return search(searched, searchType, null).getIndexes();
+    }
+
+    /**
+     * Same as {@link #search(String, SearchType)}, narrowing the previous result if the searched text starts with the previous one. Only the words
+     * matched by the previous search are then searched, typing one more character costs the size of the previous result instead of the whole index.
+     *
+     * @param searched   the searched text, not empty
+     * @param searchType the language to search
+     * @param previous   the result of the previous search of this index, or null
+     * @return the result, to give to the next search
+     */
+    public Result search(String searched, SearchType searchType, Result previous)
+    {
+        SortedWords words = SearchType.ENGLISH.equals(searchType) ? this.englishWords : this.foreignWords;
+        String searchKey = SearchKeys.fold(searched);
+        boolean isNarrowing = previous != null && previous.words == words && searchKey.startsWith(previous.searched);
+
+        if(isNarrowing)
+        {
+            return words.search(searchKey, previous.from, previous.to);
+        }
+
+        return words.search(searchKey, 0, words.size());
+    }
+
+    /**
+     * Vocabularies matched by a search, and the range of the sorted words they were matched by.
+     */
+    public static final class Result
+    {
+        private final SortedWords words;
+        // The search key of the searched text.
+        private final String searched;
+        private final int from;
+        private final int to;
+        private final int[] indexes;
+
+        private Result(SortedWords words, String searched, int from, int to, int[] indexes)
+        {
+            this.words = words;
+            this.searched = searched;
+            this.from = from;
+            this.to = to;
+            this.indexes = indexes;
+        }
+
+        /**
+         * Returns the indexes in the list of the matching vocabularies, in ascending order.
+         */
+        public int[] getIndexes()
+        {
+            return this.indexes;
+        }
+    }
+
+    /**
+     * Ranges of bytes of the words, each with the index of its vocabulary, appended to growing arrays.
+     */
+    private static final class WordRanges
+    {
+        private int[] starts;
+        private int[] ends;
+        private int[] indexes;
+        private int size;
+
+        private WordRanges(int expectedSize)
+        {
+            int capacity = Math.max(expectedSize, 1);
+
+            this.starts = new int[capacity];
+            this.ends = new int[capacity];
+            this.indexes = new int[capacity];
+        }
+
+        private void add(int start, int end, int index)
+        {
+            if(this.size == this.starts.length)
+            {
+                this.starts = Arrays.copyOf(this.starts, this.size * 2);
+                this.ends = Arrays.copyOf(this.ends, this.size * 2);
+                this.indexes = Arrays.copyOf(this.indexes, this.size * 2);
+            }
+
+            this.starts[this.size] = start;
+            this.ends[this.size] = end;
+            this.indexes[this.size] = index;
+            this.size++;
+        }
+    }
+
+    /**
+     * Words sorted in ascending order of their bytes, each with the index of its vocabulary. Words starting with the same prefix are next to each
+     * other.
+     */
+    private static final class SortedWords
+    {
+        private final ByteBuffer words;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] indexes;
+
+        private SortedWords(ByteBuffer words, WordRanges ranges)
+        {
+            this.words = words;
+
+            int[] order = new int[ranges.size];
+            for(int i = 0; i < order.length; i++)
+            {
+                order[i] = i;
+            }
+            sort(order, new int[order.length], 0, order.length, ranges);
+
+            this.starts = new int[order.length];
+            this.ends = new int[order.length];
+            this.indexes = new int[order.length];
+            for(int i = 0; i < order.length; i++)
+            {
+                this.starts[i] = ranges.starts[order[i]];
+                this.ends[i] = ranges.ends[order[i]];
+                this.indexes[i] = ranges.indexes[order[i]];
+            }
+        }
+
+        /**
+         * Merge sort of the positions of the given ranges by their words, on ints instead of boxed Integers. Stable, equal words keep the order of
+         * the list.
+         */
+        private void sort(int[] order, int[] merged, int from, int to, WordRanges ranges)
+        {
+            if(to - from < 2)
+            {
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            sort(order, merged, from, middle, ranges);
+            sort(order, merged, middle, to, ranges);
+
+            if(compare(ranges, order[middle - 1], order[middle]) <= 0)
+            {
+                return;
+            }
+
+            System.arraycopy(order, from, merged, from, to - from);
+            int left = from;
+            int right = middle;
+            for(int i = from; i < to; i++)
+            {
+                boolean isLeft = right >= to || (left < middle && compare(ranges, merged[left], merged[right]) <= 0);
+                order[i] = isLeft ? merged[left++] : merged[right++];
+            }
+        }
+
+        private int compare(WordRanges ranges, int first, int second)
+        {
+            int firstStart = ranges.starts[first];
+            int secondStart = ranges.starts[second];
+            int firstLength = ranges.ends[first] - firstStart;
+            int secondLength = ranges.ends[second] - secondStart;
+            int length = Math.min(firstLength, secondLength);
+
+            for(int i = 0; i < length; i++)
+            {
+                int difference = (this.words.get(firstStart + i) & 0xFF) - (this.words.get(secondStart + i) & 0xFF);
+                if(difference != 0)
+                {
+                    return difference;
+                }
+            }
+
+            return firstLength - secondLength;
+        }
+
+        private int size()
+        {
+            return this.starts.length;
+        }
+
+        /**
+         * Searches the words starting with the prefix, only between the given positions.
+         */
+        private Result search(String prefix, int fromPosition, int toPosition)
+        {
+            byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+            int from = lowerBound(prefixBytes, fromPosition, toPosition);
+            int to = from;
+            while(to < toPosition && startsWith(to, prefixBytes))
+            {
+                to++;
+            }
+
+            return new Result(this, prefix, from, to, toSortedIndexes(from, to));
+        }
+
+        private int[] toSortedIndexes(int from, int to)
+        {
+            if(from == to)
+            {
+                return new int[0];
+            }
+
+            // Back to the order of the list, without the vocabularies matched by several of their sub-words.
+            int[] matches = Arrays.copyOfRange(this.indexes, from, to);
+            Arrays.sort(matches);
+
+            int count = 1;
+            for(int i = 1; i < matches.length; i++)
+            {
+                if(matches[i] != matches[count - 1])
+                {
+                    matches[count++] = matches[i];
+                }
+            }
+
+            return count == matches.length ? matches : Arrays.copyOf(matches, count);
+        }
+
+        /**
+         * Returns the position of the first word greater than or equal to the given bytes, between the given positions.
+         */
+        private int lowerBound(byte[] word, int fromPosition, int toPosition)
+        {
+            int low = fromPosition;
+            int high = toPosition;
+
+            while(low < high)
+            {
+                int middle = (low + high) >>> 1;
+                if(compareTo(middle, word) < 0)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        private int compareTo(int position, byte[] word)
+        {
+            int start = this.starts[position];
+            int wordLength = this.ends[position] - start;
+            int length = Math.min(wordLength, word.length);
+
+            for(int i = 0; i < length; i++)
+            {
+                int difference = (this.words.get(start + i) & 0xFF) - (word[i] & 0xFF);
+                if(difference != 0)
+                {
+                    return difference;
+                }
+            }
+
+            return wordLength - word.length;
+        }
+
+        private boolean startsWith(int position, byte[] prefix)
+        {
+            int start = this.starts[position];
+            if(this.ends[position] - start < prefix.length)
+            {
+                return false;
+            }
+
+            for(int i = 0; i < prefix.length; i++)
+            {
+                if(this.words.get(start + i) != prefix[i])
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
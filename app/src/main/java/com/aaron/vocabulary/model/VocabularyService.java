@@ -1,10 +1,10 @@
 package com.aaron.vocabulary.model;
 
-import com.aaron.vocabulary.bean.ResponseVocabulary;
-
 import io.reactivex.Single;
+import okhttp3.ResponseBody;
 import retrofit2.http.GET;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Created by Aaron on 25/02/2018.
@@ -14,11 +14,13 @@ public interface VocabularyService
     String BASE_URL = "http://%s/Vocabulary/";
 
     /**
-     * Retrieves all vocabularies given the last updated date.
+     * Retrieves all vocabularies given the last updated date. The response body is not read nor converted, so that it can be parsed while it is
+     * downloaded.
      *
      * @param lastUpdated filter get request with last updated date
-     * @return {@code Call<ResponseVocabulary>} response Vocabulary
+     * @return {@code Single<ResponseBody>} the unread response body, must be closed
      */
+    @Streaming
     @GET("vocabularies")
-    Single<ResponseVocabulary> getAllVocabularies(@Query("last_updated") String lastUpdated);
+    Single<ResponseBody> streamAllVocabularies(@Query("last_updated") String lastUpdated);
 }
\ No newline at end of file
@@ -0,0 +1,370 @@
+package com.aaron.vocabulary.model;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.aaron.vocabulary.bean.ForeignLanguage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.aaron.vocabulary.model.MySQLiteHelper.Column;
+import static com.aaron.vocabulary.model.MySQLiteHelper.StatisticsColumn;
+import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY;
+import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY_STATISTICS;
+
+/**
+ * Read-only list of the vocabularies of one foreign language, read from a memory-mapped file written from the database.
+ * Only the words of the accessed items are decoded, nothing is parsed when the file is opened.
+ * The file is stamped with the vocabulary count and latest date_in of the language, and is only opened if they still match the statistics table.
+ * <p>
+ * File format, big-endian:
+ * <pre>
+ * int magic, int format version, long last date_in, int count, int count of english sub-words in the search keys
+ * UTF-8 english word, foreign word, english search key and foreign search key of each vocabulary, one after the other
+ * int[count] vocabulary ids
+ * int[count * 4 + 1] offsets of each word in the UTF-8 data, the last one being the end of the data
+ * </pre>
+ */
+final class VocabularySnapshot extends VocabularyList
+{
+    private static final int MAGIC = 0x564F4342;
+    // Version 2 added the search keys, version 3 the count of english sub-words. Files of previous versions are written again.
+    private static final int FORMAT_VERSION = 3;
+    private static final int WORDS_PER_VOCABULARY = 4;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+    // Same order as VocabularyCursorList.
+    private static final String SELECT_VOCABULARIES = "SELECT " +
+            Column.id.name() + ", " +
+            Column.english_word.name() + ", " +
+            Column.foreign_word.name() + ", " +
+            Column.english_search_key.name() + ", " +
+            Column.foreign_search_key.name() +
+            " FROM " + TABLE_VOCABULARY +
+            " WHERE " + Column.foreign_language_id.name() + " = ?" +
+            " ORDER BY " + Column.date_in.name() + ", " + Column.id.name();
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final int englishWordCount;
+    private final int idsPosition;
+    private final int offsetsPosition;
+
+    private VocabularySnapshot(MappedByteBuffer buffer, ForeignLanguage language, int size, int englishWordCount)
+    {
+        super(language);
+
+        this.buffer = buffer;
+        this.size = size;
+        this.englishWordCount = englishWordCount;
+        this.offsetsPosition = buffer.limit() - (size * WORDS_PER_VOCABULARY + 1) * 4;
+        this.idsPosition = this.offsetsPosition - size * 4;
+    }
+
+    /**
+     * Maps the snapshot file of the language.
+     *
+     * @param db       the database, to check that the snapshot is up to date
+     * @param language the foreign language of the vocabularies
+     * @param file     the snapshot file
+     * @return the snapshot, or null if the file does not exist, is invalid, or is out of date
+     */
+    static VocabularySnapshot open(SQLiteDatabase db, ForeignLanguage language, File file)
+    {
+        if(!file.isFile())
+        {
+            return null;
+        }
+
+        MappedByteBuffer buffer;
+        try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"); FileChannel channel = randomAccessFile.getChannel())
+        {
+            // The mapping stays valid after the channel is closed, and after the file is replaced.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        catch(IOException e)
+        {
+            LogsManager.log(VocabularySnapshot.class.getSimpleName(), "open", "Cannot map file=" + file, e);
+            return null;
+        }
+
+        if(buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION)
+        {
+            return null;
+        }
+
+        long[] stamp = readStamp(db, language);
+        long lastDateIn = buffer.getLong(8);
+        int size = buffer.getInt(16);
+        int englishWordCount = buffer.getInt(20);
+        boolean isValidSize = size >= 0 && englishWordCount >= size
+                && (long) HEADER_SIZE + (size * (WORDS_PER_VOCABULARY + 1L) + 1) * 4 <= buffer.limit();
+
+        if(!isValidSize || stamp[0] != size || stamp[1] != lastDateIn)
+        {
+            return null;
+        }
+
+        return new VocabularySnapshot(buffer, language, size, englishWordCount);
+    }
+
+    /**
+     * Writes the snapshot file of the language from the database. The file is replaced atomically, so snapshots already opened are not affected.
+     * Nothing is written if the vocabularies of the language changed while writing.
+     *
+     * @param db       the database
+     * @param language the foreign language of the vocabularies
+     * @param file     the snapshot file
+     * @return true if written, false if the vocabularies changed while writing
+     * @throws IOException if the file cannot be written
+     */
+    static boolean write(SQLiteDatabase db, ForeignLanguage language, File file) throws IOException
+    {
+        File directory = file.getParentFile();
+        if(!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Cannot create directory=" + directory);
+        }
+
+        long[] stamp = readStamp(db, language);
+        File tempFile = File.createTempFile(file.getName(), null, directory);
+
+        try
+        {
+            int count = writeVocabularies(db, language, stamp[1], tempFile);
+            boolean isUpToDate = count == stamp[0] && Arrays.equals(stamp, readStamp(db, language));
+
+            if(isUpToDate && !tempFile.renameTo(file))
+            {
+                throw new IOException("Cannot rename " + tempFile + " to " + file);
+            }
+
+            return isUpToDate;
+        }
+        finally
+        {
+            tempFile.delete();
+        }
+    }
+
+    private static int writeVocabularies(SQLiteDatabase db, ForeignLanguage language, long lastDateIn, File file) throws IOException
+    {
+        int count = 0;
+        int[] ids = new int[64];
+        int[] offsets = new int[ids.length * WORDS_PER_VOCABULARY + 1];
+        int offset = 0;
+        int wordCount = 0;
+        int englishWordCount = 0;
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            Cursor cursor = db.rawQuery(SELECT_VOCABULARIES, new String[] { String.valueOf(language.getId()) }))
+        {
+            // The counts are only known at the end, they are written again in the header once the data is written.
+            writeHeader(out, lastDateIn, 0, 0);
+
+            while(cursor.moveToNext())
+            {
+                if(count == ids.length)
+                {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2 * WORDS_PER_VOCABULARY + 1);
+                }
+
+                ids[count] = cursor.getInt(0);
+
+                String englishWord = cursor.getString(1);
+                String foreignWord = cursor.getString(2);
+                // Only vocabularies inserted without VocabularyBulkWriter have no keys.
+                String englishSearchKey = cursor.isNull(3) ? SearchKeys.fold(englishWord) : cursor.getString(3);
+                String foreignSearchKey = cursor.isNull(4) ? SearchKeys.fold(foreignWord) : cursor.getString(4);
+                englishWordCount += countEnglishWords(englishSearchKey);
+
+                for(String word : new String[] { englishWord, foreignWord, englishSearchKey, foreignSearchKey })
+                {
+                    byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                    offsets[wordCount++] = offset;
+                    out.write(bytes);
+                    offset += bytes.length;
+                }
+
+                count++;
+            }
+
+            offsets[wordCount] = offset;
+
+            for(int i = 0; i < count; i++)
+            {
+                out.writeInt(ids[i]);
+            }
+            for(int i = 0; i <= wordCount; i++)
+            {
+                out.writeInt(offsets[i]);
+            }
+        }
+
+        try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+        {
+            writeHeader(randomAccessFile, lastDateIn, count, englishWordCount);
+        }
+
+        return count;
+    }
+
+    private static int countEnglishWords(String englishSearchKey)
+    {
+        int count = 1;
+        int start = 0;
+        while((start = englishSearchKey.indexOf(VocabularySearchIndex.ENGLISH_WORD_SEPARATOR, start)) >= 0)
+        {
+            start += VocabularySearchIndex.ENGLISH_WORD_SEPARATOR.length();
+            count++;
+        }
+
+        return count;
+    }
+
+    private static void writeHeader(DataOutput out, long lastDateIn, int count, int englishWordCount) throws IOException
+    {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(lastDateIn);
+        out.writeInt(count);
+        out.writeInt(englishWordCount);
+    }
+
+    /**
+     * Returns the vocabulary count and latest date_in of the language, 0 if it has no vocabulary.
+     */
+    static long[] readStamp(SQLiteDatabase db, ForeignLanguage language)
+    {
+        String[] columns = new String[] { StatisticsColumn.vocabulary_count.name(), "IFNULL(" + StatisticsColumn.last_date_in.name() + ", 0)" };
+        String whereClause = StatisticsColumn.foreign_language_id.name() + " = ?";
+        String[] whereArgs = new String[] { String.valueOf(language.getId()) };
+
+        try(Cursor cursor = db.query(TABLE_VOCABULARY_STATISTICS, columns, whereClause, whereArgs, null, null, null))
+        {
+            if(cursor.moveToFirst() && cursor.getLong(0) > 0)
+            {
+                return new long[] { cursor.getLong(0), cursor.getLong(1) };
+            }
+        }
+
+        return new long[] { 0, 0 };
+    }
+
+    @Override
+    public long getId(int index)
+    {
+        checkIndex(index);
+        return buffer.getInt(idsPosition + index * 4);
+    }
+
+    @Override
+    public String getEnglishWord(int index)
+    {
+        checkIndex(index);
+        return getWord(index * WORDS_PER_VOCABULARY);
+    }
+
+    @Override
+    public String getForeignWord(int index)
+    {
+        checkIndex(index);
+        return getWord(index * WORDS_PER_VOCABULARY + 1);
+    }
+
+    /**
+     * Reads the key stored in the file, computed when the vocabulary was written to the database.
+     */
+    @Override
+    public String getEnglishSearchKey(int index)
+    {
+        checkIndex(index);
+        return getWord(index * WORDS_PER_VOCABULARY + 2);
+    }
+
+    /**
+     * Reads the key stored in the file, computed when the vocabulary was written to the database.
+     */
+    @Override
+    public String getForeignSearchKey(int index)
+    {
+        checkIndex(index);
+        return getWord(index * WORDS_PER_VOCABULARY + 3);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Reads the whole file in memory, so that the words of any item are read without waiting on the disk. Not done when opened, only the accessed pages
+     * are read then.
+     */
+    void load()
+    {
+        buffer.load();
+    }
+
+    /**
+     * Returns the number of bytes mapped, the size of the file, plus the size of the search index whether it is built yet or not. The index reads
+     * its words from the mapped file, only its positions use memory, known from the header without reading the words.
+     */
+    long getMemorySize()
+    {
+        return buffer.capacity() + VocabularySearchIndex.getMemorySize(englishWordCount + size);
+    }
+
+    /**
+     * Indexes the search keys where they are in the mapped file, without decoding them.
+     */
+    @Override
+    VocabularySearchIndex buildSearchIndex()
+    {
+        VocabularySearchIndex.Builder builder = new VocabularySearchIndex.Builder(buffer, size);
+
+        for(int i = 0; i < size; i++)
+        {
+            int englishSearchKey = i * WORDS_PER_VOCABULARY + 2;
+            int foreignSearchKey = englishSearchKey + 1;
+            builder.add(i, getWordStart(englishSearchKey), getWordStart(foreignSearchKey), getWordStart(foreignSearchKey),
+                    getWordStart(foreignSearchKey + 1));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Returns the position in the buffer of the word, its end being the start of the next word.
+     */
+    private int getWordStart(int wordIndex)
+    {
+        return HEADER_SIZE + buffer.getInt(offsetsPosition + wordIndex * 4);
+    }
+
+    private String getWord(int wordIndex)
+    {
+        int start = getWordStart(wordIndex);
+        byte[] bytes = new byte[getWordStart(wordIndex + 1) - start];
+
+        // The position of the buffer is shared by every thread, a duplicate has its own to read the word in one bulk copy.
+        ByteBuffer word = buffer.duplicate();
+        word.position(start);
+        word.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package com.aaron.vocabulary.adapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FilterDiffTest
+{
+    @Test
+    public void givenNarrowedFilter_whenBetween_thenOnlyRemovedRangesShouldBeDispatched()
+    {
+        FilterDiff diff = FilterDiff.between(new int[] { 1, 2, 3, 4, 7 }, new int[] { 1, 4 }, 10);
+
+        assertEquals(Arrays.asList("removed 1 2", "removed 2 1"), dispatch(diff));
+    }
+
+    @Test
+    public void givenClearedFilter_whenBetween_thenRowsAroundMatchesShouldBeInserted()
+    {
+        FilterDiff diff = FilterDiff.between(new int[] { 1, 2 }, null, 5);
+
+        assertEquals(Arrays.asList("inserted 0 1", "inserted 3 2"), dispatch(diff));
+    }
+
+    @Test
+    public void givenOtherFilter_whenBetween_thenRemovedAndInsertedRowsShouldBeDispatchedInOrder()
+    {
+        FilterDiff diff = FilterDiff.between(new int[] { 0, 3 }, new int[] { 1, 3, 4 }, 5);
+
+        assertEquals(Arrays.asList("removed 0 1", "inserted 0 1", "inserted 2 1"), dispatch(diff));
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    public void givenSameRows_whenBetween_thenDiffShouldBeEmpty()
+    {
+        assertTrue(FilterDiff.between(new int[] { 0, 1, 2 }, null, 3).isEmpty());
+        assertTrue(FilterDiff.between(new int[] { 2 }, new int[] { 2 }, 3).isEmpty());
+    }
+
+    private List<String> dispatch(FilterDiff diff)
+    {
+        List<String> changes = new ArrayList<>();
+        diff.dispatchTo(new FilterDiff.Callback()
+        {
+            @Override
+            public void onRemoved(int position, int count)
+            {
+                changes.add("removed " + position + " " + count);
+            }
+
+            @Override
+            public void onInserted(int position, int count)
+            {
+                changes.add("inserted " + position + " " + count);
+            }
+        });
+
+        return changes;
+    }
+}
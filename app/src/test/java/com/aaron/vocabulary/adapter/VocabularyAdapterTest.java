@@ -1,14 +1,19 @@
 package com.aaron.vocabulary.adapter;
 
+import android.support.v7.widget.RecyclerView;
+
 import com.aaron.vocabulary.RobolectricTest;
 import com.aaron.vocabulary.bean.ForeignLanguage;
 import com.aaron.vocabulary.bean.SearchType;
+import com.aaron.vocabulary.bean.Settings;
 import com.aaron.vocabulary.bean.Vocabulary;
+import com.aaron.vocabulary.model.CompactVocabularyList;
 
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -28,7 +33,7 @@ public class VocabularyAdapterTest extends RobolectricTest
         adapter = initializeVocabularyAdapter(vocabularyList);
         adapter.filter(searchText, type);
 
-        thenVocabularyListShouldOnlyIncludeEnglishVocabulariesMatchingTheSearchText(vocabularyList, searchText);
+        thenVocabularyListShouldOnlyIncludeEnglishVocabulariesMatchingTheSearchText(adapterList(), searchText);
     }
 
     @Test
@@ -42,7 +47,7 @@ public class VocabularyAdapterTest extends RobolectricTest
 
         adapter.filter(searchText, type);
 
-        thenVocabularyListShouldOnlyIncludeForeignVocabulariesMatchingTheSearchText(vocabularyList, searchText);
+        thenVocabularyListShouldOnlyIncludeForeignVocabulariesMatchingTheSearchText(adapterList(), searchText);
     }
 
     @Test
@@ -56,7 +61,19 @@ public class VocabularyAdapterTest extends RobolectricTest
         adapter = initializeVocabularyAdapter(vocabularyList);
         adapter.filter(searchText, type);
 
-        assertEquals(originalList, vocabularyList);
+        assertEquals(originalList, adapterList());
+    }
+
+    @Test
+    public void givenFilteredVocabularyList_whenClearFilter_thenVocabularyListShouldIncludeAll()
+    {
+        ArrayList<Vocabulary> vocabularyList = givenVocabularyList();
+
+        adapter = initializeVocabularyAdapter(vocabularyList);
+        adapter.filter("bo", SearchType.ENGLISH);
+        adapter.clearFilter();
+
+        assertEquals(vocabularyList, adapterList());
     }
 
     @Test
@@ -69,7 +86,7 @@ public class VocabularyAdapterTest extends RobolectricTest
 
         adapter.update(null);
 
-        assertEquals(originalList, adapterList);
+        assertEquals(originalList, adapterList());
     }
 
     @Test
@@ -79,9 +96,9 @@ public class VocabularyAdapterTest extends RobolectricTest
 
         adapter = initializeVocabularyAdapter(adapterList);
 
-        adapter.update(new ArrayList<>(0));
+        adapter.update(CompactVocabularyList.copyOf(ForeignLanguage.Hokkien, new ArrayList<>(0)));
 
-        assertTrue(adapterList.isEmpty());
+        assertTrue(adapterList().isEmpty());
     }
 
     @Test
@@ -92,14 +109,49 @@ public class VocabularyAdapterTest extends RobolectricTest
 
         ArrayList<Vocabulary> vocabularyList = givenVocabularyList();
 
-        adapter.update(vocabularyList);
+        adapter.update(CompactVocabularyList.copyOf(ForeignLanguage.Hokkien, vocabularyList));
 
-        assertEquals(vocabularyList, adapterList);
+        assertEquals(vocabularyList, adapterList());
+    }
+
+    @Test
+    public void givenSettings_whenSetSettings_thenRowsShouldOnlyBeBoundAgainIfTheFontChanged()
+    {
+        adapter = initializeVocabularyAdapter(givenVocabularyList());
+        AtomicInteger changedCount = new AtomicInteger();
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver()
+        {
+            @Override
+            public void onChanged()
+            {
+                changedCount.incrementAndGet();
+            }
+        });
+
+        adapter.setSettings(new Settings().setForeignLanguage(ForeignLanguage.Mandarin));
+        assertEquals(0, changedCount.get());
+
+        adapter.setSettings(new Settings().setFontSize(18));
+        assertEquals(1, changedCount.get());
+
+        adapter.setSettings(new Settings().setFontSize(18).setFontStyle(Settings.FontStyle.Bold));
+        assertEquals(2, changedCount.get());
     }
 
     private VocabularyAdapter initializeVocabularyAdapter(ArrayList<Vocabulary> vocabularyList)
     {
-        return new VocabularyAdapter(getContext(), vocabularyList, null);
+        return new VocabularyAdapter(getContext(), CompactVocabularyList.copyOf(ForeignLanguage.Hokkien, vocabularyList), new Settings());
+    }
+
+    private ArrayList<Vocabulary> adapterList()
+    {
+        ArrayList<Vocabulary> list = new ArrayList<>(adapter.getItemCount());
+        for(int i = 0; i < adapter.getItemCount(); i++)
+        {
+            list.add(adapter.getItem(i));
+        }
+
+        return list;
     }
 
     private ArrayList<Vocabulary> givenVocabularyList()
@@ -0,0 +1,57 @@
+package com.aaron.vocabulary.model;
+
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.aaron.vocabulary.bean.ForeignLanguage.Hokkien;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactVocabularyListTest
+{
+    @Test
+    public void givenVocabularies_whenCopyOf_thenWordsShouldBeReadByIndexInTheSameOrder()
+    {
+        List<Vocabulary> vocabularies = Arrays.asList(
+                new Vocabulary("bad", "pháiⁿ", Hokkien),
+                new Vocabulary("", "", Hokkien),
+                new Vocabulary("below / beneath / bottom / underneath", "tē-bīn / ē-tóe", Hokkien));
+
+        CompactVocabularyList list = CompactVocabularyList.copyOf(Hokkien, vocabularies);
+
+        assertEquals(vocabularies, new ArrayList<>(list));
+        assertEquals("tē-bīn / ē-tóe", list.getForeignWord(2));
+        assertEquals("", list.getEnglishWord(1));
+        assertEquals(2, list.getId(2));
+        assertEquals(Hokkien, list.getForeignLanguage());
+    }
+
+    @Test
+    public void givenMoreVocabulariesThanExpected_whenBuild_thenAllVocabulariesShouldBeKept()
+    {
+        CompactVocabularyList.Builder builder = new CompactVocabularyList.Builder(Hokkien, 1);
+        for(int i = 0; i < 100; i++)
+        {
+            builder.add(i * 10, "english word number " + i + " that is longer than the average length", "foreign " + i);
+        }
+
+        CompactVocabularyList list = builder.build();
+
+        assertEquals(100, list.size());
+        assertEquals("foreign 99", list.getForeignWord(99));
+        assertEquals(990, list.getId(99));
+        assertEquals("english word number 50 that is longer than the average length", list.getEnglishWord(50));
+        assertTrue(list.getMemorySize() > 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void givenEmptyList_whenGetEnglishWord_thenIndexOutOfBoundsExceptionShouldBeThrown()
+    {
+        CompactVocabularyList.copyOf(Hokkien, new ArrayList<>(0)).getEnglishWord(0);
+    }
+}
@@ -0,0 +1,137 @@
+package com.aaron.vocabulary.model;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.aaron.vocabulary.RobolectricTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneId;
+
+import java.io.File;
+
+import static com.aaron.vocabulary.bean.ForeignLanguage.Japanese;
+import static com.aaron.vocabulary.model.MySQLiteHelper.DATABASE_NAME;
+import static com.aaron.vocabulary.model.MySQLiteHelper.INDEX_VOCABULARY_DATE_IN;
+import static com.aaron.vocabulary.model.MySQLiteHelper.INDEX_VOCABULARY_FOREIGN_LANGUAGE_DATE_IN;
+import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MySQLiteHelperTest extends RobolectricTest
+{
+    // The schema as shipped in database version 1, frozen here so that every migration is tested from it.
+    private static final String CREATE_TABLE_VOCABULARY_VERSION_1 = "CREATE TABLE vocabulary(" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            "english_word TEXT NOT NULL, " +
+            "foreign_word TEXT NOT NULL, " +
+            "foreign_language TEXT NOT NULL, " +
+            "date_in TEXT NOT NULL, " +
+            "UNIQUE(english_word, foreign_word));";
+
+    private static final int VERSION_1_ROW_COUNT = 3;
+
+    @Before
+    public void init()
+    {
+        givenVersion1DatabaseWithVocabularies();
+    }
+
+    @After
+    public void close()
+    {
+        MySQLiteHelper.getInstance(getContext()).close();
+    }
+
+    @Test
+    public void givenVersion1DatabaseWithVocabularies_whenOpened_thenVocabulariesShouldBePreservedAndIndexed()
+    {
+        SQLiteDatabase db = MySQLiteHelper.getInstance(getContext()).getReadableDatabase();
+
+        assertEquals(VERSION_1_ROW_COUNT, DatabaseUtils.queryNumEntries(db, TABLE_VOCABULARY));
+        assertIndexExists(db, INDEX_VOCABULARY_FOREIGN_LANGUAGE_DATE_IN);
+        assertIndexExists(db, INDEX_VOCABULARY_DATE_IN);
+    }
+
+    @Test
+    public void givenVersion1DatabaseWithVocabularies_whenOpened_thenDateInShouldBeMigratedToEpochMillis()
+    {
+        SQLiteDatabase db = MySQLiteHelper.getInstance(getContext()).getReadableDatabase();
+        long expected = LocalDateTime.of(2018, 6, 1, 9, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        try(Cursor cursor = db.rawQuery("SELECT typeof(date_in), date_in FROM vocabulary WHERE english_word = 'water'", null))
+        {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("integer", cursor.getString(0));
+            assertEquals(expected, cursor.getLong(1));
+        }
+    }
+
+    @Test
+    public void givenVersion1DatabaseWithVocabularies_whenOpened_thenVocabularyStatisticsShouldBePopulated()
+    {
+        SQLiteDatabase db = MySQLiteHelper.getInstance(getContext()).getReadableDatabase();
+
+        try(Cursor cursor = db.rawQuery("SELECT vocabulary_count FROM vocabulary_statistics WHERE foreign_language_id = 0", null))
+        {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void givenVersion1DatabaseWithVocabularies_whenOpened_thenForeignLanguageShouldBeMigratedToId()
+    {
+        SQLiteDatabase db = MySQLiteHelper.getInstance(getContext()).getReadableDatabase();
+
+        try(Cursor cursor = db.rawQuery("SELECT v.foreign_language_id, l.name FROM vocabulary v JOIN foreign_language l ON l.id = v.foreign_language_id " +
+                "WHERE v.english_word = 'water'", null))
+        {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(Japanese.getId(), cursor.getInt(0));
+            assertEquals(Japanese.getLanguage(), cursor.getString(1));
+        }
+    }
+
+    @Test
+    public void givenVersion1DatabaseWithVocabularies_whenOpened_thenSearchKeysShouldBeFoldedWithoutFullTextIndex()
+    {
+        SQLiteDatabase db = MySQLiteHelper.getInstance(getContext()).getReadableDatabase();
+
+        try(Cursor cursor = db.rawQuery("SELECT english_search_key, foreign_search_key FROM vocabulary WHERE english_word = 'boss'", null))
+        {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("boss", cursor.getString(0));
+            assertEquals("thau-ke", cursor.getString(1));
+        }
+
+        assertEquals(0, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM sqlite_master WHERE name LIKE 'vocabulary_search%'", null));
+    }
+
+    private void givenVersion1DatabaseWithVocabularies()
+    {
+        File databaseFile = getContext().getDatabasePath(DATABASE_NAME);
+        databaseFile.getParentFile().mkdirs();
+
+        try(SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(databaseFile, null))
+        {
+            db.execSQL(CREATE_TABLE_VOCABULARY_VERSION_1);
+            db.execSQL("INSERT INTO vocabulary(english_word, foreign_word, foreign_language, date_in) VALUES('bad', 'pháiⁿ', 'Hokkien', 'May 8, 2018 02:37:39 PM')");
+            db.execSQL("INSERT INTO vocabulary(english_word, foreign_word, foreign_language, date_in) VALUES('boss', 'thâu-ke', 'Hokkien', 'May 8, 2018 02:37:39 PM')");
+            db.execSQL("INSERT INTO vocabulary(english_word, foreign_word, foreign_language, date_in) VALUES('water', 'mizu', 'Japanese', 'June 1, 2018 09:00:00 AM')");
+            db.setVersion(1);
+        }
+    }
+
+    private void assertIndexExists(SQLiteDatabase db, String indexName)
+    {
+        try(Cursor cursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND name = ?", new String[] { indexName }))
+        {
+            assertTrue(indexName + " should exist", cursor.moveToFirst());
+        }
+    }
+}
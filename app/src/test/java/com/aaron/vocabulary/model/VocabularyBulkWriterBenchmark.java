@@ -0,0 +1,163 @@
+package com.aaron.vocabulary.model;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.aaron.vocabulary.RobolectricTest;
+import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.aaron.vocabulary.model.MySQLiteHelper.Column;
+import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the per-row ContentValues insert against the compiled statement bulk writer, on a full re-sync sized list. Measures wall-clock time, so it
+ * is not part of the unit tests: only run with {@code ./gradlew testDebugUnitTest -Pbenchmark --tests '*Benchmark'}.
+ * Both paths are warmed up first, then measured in alternating order, and write the same columns.
+ */
+public class VocabularyBulkWriterBenchmark extends RobolectricTest
+{
+    private static final int ROW_COUNT = 100_000;
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 4;
+
+    private MySQLiteHelper dbHelperTest;
+
+    @Before
+    public void init()
+    {
+        dbHelperTest = MySQLiteHelper.getInstance(getContext());
+    }
+
+    @After
+    public void close()
+    {
+        dbHelperTest.close();
+    }
+
+    @Test
+    public void givenLargeVocabularyList_whenBulkInsert_thenAllVocabulariesShouldBeInsertedFasterThanWithContentValues()
+    {
+        List<Vocabulary> vocabularies = givenVocabularies(ROW_COUNT);
+        List<Vocabulary> warmUpVocabularies = vocabularies.subList(0, ROW_COUNT / 10);
+
+        for(int round = 0; round < WARM_UP_ROUNDS; round++)
+        {
+            timed(this::writeWithContentValues, warmUpVocabularies);
+            timed(this::writeWithBulkWriter, warmUpVocabularies);
+        }
+
+        long contentValuesNanos = 0;
+        long bulkWriterNanos = 0;
+        for(int round = 0; round < MEASURED_ROUNDS; round++)
+        {
+            if(round % 2 == 0)
+            {
+                contentValuesNanos += timed(this::writeWithContentValues, vocabularies);
+                bulkWriterNanos += timed(this::writeWithBulkWriter, vocabularies);
+            }
+            else
+            {
+                bulkWriterNanos += timed(this::writeWithBulkWriter, vocabularies);
+                contentValuesNanos += timed(this::writeWithContentValues, vocabularies);
+            }
+        }
+
+        String rates = String.format("ContentValues insert: %d rows/sec, VocabularyBulkWriter insert: %d rows/sec", rowsPerSecond(contentValuesNanos),
+                rowsPerSecond(bulkWriterNanos));
+        assertTrue(rates, bulkWriterNanos < contentValuesNanos);
+    }
+
+    /**
+     * The insert path used before VocabularyBulkWriter, kept here as the benchmark baseline. Binds the same epoch date_in and search keys as the bulk
+     * writer, so that only the insert itself is compared.
+     */
+    private void writeWithContentValues(List<Vocabulary> vocabularies)
+    {
+        SQLiteDatabase db = dbHelperTest.getWritableDatabase();
+        long dateIn = System.currentTimeMillis();
+        db.beginTransaction();
+        try
+        {
+            for(Vocabulary vocabulary : vocabularies)
+            {
+                ContentValues values = new ContentValues();
+                values.put(Column.english_word.name(), vocabulary.getEnglishWord());
+                values.put(Column.foreign_word.name(), vocabulary.getForeignWord());
+                values.put(Column.foreign_language_id.name(), vocabulary.getForeignLanguage().getId());
+                values.put(Column.date_in.name(), dateIn);
+                values.put(Column.english_search_key.name(), SearchKeys.fold(vocabulary.getEnglishWord()));
+                values.put(Column.foreign_search_key.name(), SearchKeys.fold(vocabulary.getForeignWord()));
+
+                db.insert(TABLE_VOCABULARY, null, values);
+            }
+            db.setTransactionSuccessful();
+        }
+        finally
+        {
+            db.endTransaction();
+        }
+    }
+
+    private void writeWithBulkWriter(List<Vocabulary> vocabularies)
+    {
+        SQLiteDatabase db = dbHelperTest.getWritableDatabase();
+        db.beginTransaction();
+        try(VocabularyBulkWriter writer = new VocabularyBulkWriter(db, System.currentTimeMillis()))
+        {
+            for(Vocabulary vocabulary : vocabularies)
+            {
+                writer.insert(vocabulary.getForeignLanguage(), vocabulary);
+            }
+            db.setTransactionSuccessful();
+        }
+        finally
+        {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Writes the vocabularies to an empty table, then checks and deletes them outside of the measured time.
+     */
+    private long timed(Consumer<List<Vocabulary>> write, List<Vocabulary> vocabularies)
+    {
+        long start = System.nanoTime();
+        write.accept(vocabularies);
+        long nanos = System.nanoTime() - start;
+
+        SQLiteDatabase db = dbHelperTest.getWritableDatabase();
+        assertEquals(vocabularies.size(), DatabaseUtils.queryNumEntries(db, TABLE_VOCABULARY));
+        db.delete(TABLE_VOCABULARY, null, null);
+
+        return nanos;
+    }
+
+    private List<Vocabulary> givenVocabularies(int count)
+    {
+        List<Vocabulary> list = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+        {
+            list.add(new Vocabulary("english" + i, "foreign" + i, ForeignLanguage.values()[i % ForeignLanguage.values().length]));
+        }
+
+        return list;
+    }
+
+    private long rowsPerSecond(long nanos)
+    {
+        return MEASURED_ROUNDS * ROW_COUNT * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+    }
+}
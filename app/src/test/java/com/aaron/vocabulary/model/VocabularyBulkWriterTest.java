@@ -0,0 +1,113 @@
+package com.aaron.vocabulary.model;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.aaron.vocabulary.RobolectricTest;
+import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.UpsertResult;
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VocabularyBulkWriterTest extends RobolectricTest
+{
+    private static final int ROW_COUNT = 1_000;
+
+    private MySQLiteHelper dbHelperTest;
+
+    @Before
+    public void init()
+    {
+        dbHelperTest = MySQLiteHelper.getInstance(getContext());
+    }
+
+    @After
+    public void close()
+    {
+        dbHelperTest.close();
+    }
+
+    @Test
+    public void givenVocabulariesInDisk_whenUpsert_thenOnlyNewVocabulariesShouldBeInserted()
+    {
+        List<Vocabulary> vocabularies = givenVocabularies(10);
+        writeWithBulkWriter(vocabularies.subList(0, 5));
+
+        UpsertResult result = new UpsertResult();
+        SQLiteDatabase db = dbHelperTest.getWritableDatabase();
+        db.beginTransaction();
+        try(VocabularyBulkWriter writer = new VocabularyBulkWriter(db, now()))
+        {
+            vocabularies.forEach(vocabulary -> writer.upsert(vocabulary.getForeignLanguage(), vocabulary, result));
+            db.setTransactionSuccessful();
+        }
+        finally
+        {
+            db.endTransaction();
+        }
+
+        assertEquals(5, result.getInsertedCount());
+        assertEquals(5, result.getUnchangedCount());
+        assertEquals(10, DatabaseUtils.queryNumEntries(db, TABLE_VOCABULARY));
+    }
+
+    @Test
+    public void givenVocabularies_whenBulkInsert_thenAllVocabulariesShouldBeInsertedWithTheirSearchKeys()
+    {
+        writeWithBulkWriter(givenVocabularies(ROW_COUNT));
+
+        SQLiteDatabase db = dbHelperTest.getReadableDatabase();
+        assertEquals(ROW_COUNT, DatabaseUtils.queryNumEntries(db, TABLE_VOCABULARY));
+        try(Cursor cursor = db.rawQuery("SELECT english_search_key, foreign_search_key FROM vocabulary WHERE english_word = 'English7'", null))
+        {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("english7", cursor.getString(0));
+            assertEquals("foreign7", cursor.getString(1));
+        }
+    }
+
+    private void writeWithBulkWriter(List<Vocabulary> vocabularies)
+    {
+        SQLiteDatabase db = dbHelperTest.getWritableDatabase();
+        db.beginTransaction();
+        try(VocabularyBulkWriter writer = new VocabularyBulkWriter(db, now()))
+        {
+            for(Vocabulary vocabulary : vocabularies)
+            {
+                writer.insert(vocabulary.getForeignLanguage(), vocabulary);
+            }
+            db.setTransactionSuccessful();
+        }
+        finally
+        {
+            db.endTransaction();
+        }
+    }
+
+    private List<Vocabulary> givenVocabularies(int count)
+    {
+        List<Vocabulary> list = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+        {
+            list.add(new Vocabulary("English" + i, "foreign" + i, ForeignLanguage.values()[i % ForeignLanguage.values().length]));
+        }
+
+        return list;
+    }
+
+    private long now()
+    {
+        return System.currentTimeMillis();
+    }
+}
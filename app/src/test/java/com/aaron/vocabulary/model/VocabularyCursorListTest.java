@@ -0,0 +1,126 @@
+package com.aaron.vocabulary.model;
+
+import com.aaron.vocabulary.RobolectricTest;
+import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+
+import static com.aaron.vocabulary.bean.ForeignLanguage.Hokkien;
+import static com.aaron.vocabulary.bean.ForeignLanguage.Japanese;
+import static com.aaron.vocabulary.bean.SearchType.ENGLISH;
+import static com.aaron.vocabulary.bean.SearchType.FOREIGN;
+import static com.aaron.vocabulary.model.VocabularyCursorList.WINDOW_SIZE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VocabularyCursorListTest extends RobolectricTest
+{
+    private static final int HOKKIEN_COUNT = WINDOW_SIZE * 2 + WINDOW_SIZE / 2;
+
+    private MySQLiteHelper dbHelperTest;
+    private VocabularyManager vocabularyManager;
+
+    @Before
+    public void init()
+    {
+        dbHelperTest = MySQLiteHelper.getInstance(getContext());
+        vocabularyManager = new VocabularyManager(getContext());
+    }
+
+    @After
+    public void close()
+    {
+        dbHelperTest.close();
+        VocabularyManager.invalidateCache();
+    }
+
+    @Test
+    public void givenVocabulariesInDisk_whenGetPagedVocabulariesFromDisk_thenVocabulariesOfForeignLangShouldBeReturnedInOrder()
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = givenVocabulariesInDisk();
+
+        List<Vocabulary> pagedList = vocabularyManager.getPagedVocabulariesFromDisk(Hokkien);
+
+        assertEquals(vocabularyMap.get(Hokkien), new ArrayList<>(pagedList));
+    }
+
+    @Test
+    public void givenVocabulariesInDisk_whenGetPagedVocabularyOutOfOrder_thenVocabularyAtIndexShouldBeReturned()
+    {
+        ArrayList<Vocabulary> expected = givenVocabulariesInDisk().get(Hokkien);
+
+        List<Vocabulary> pagedList = vocabularyManager.getPagedVocabulariesFromDisk(Hokkien);
+
+        for(int index : new int[] { HOKKIEN_COUNT - 1, 0, WINDOW_SIZE + 1, WINDOW_SIZE - 1, WINDOW_SIZE * 2 })
+        {
+            assertEquals(expected.get(index), pagedList.get(index));
+        }
+    }
+
+    @Test
+    public void givenCursorList_whenVocabulariesUpserted_thenListShouldKeepItsItemsInTheSameOrder()
+    {
+        ArrayList<Vocabulary> expected = givenVocabulariesInDisk().get(Hokkien);
+        VocabularyCursorList cursorList = new VocabularyCursorList(dbHelperTest.getReadableDatabase(), Hokkien);
+
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = new EnumMap<>(ForeignLanguage.class);
+        vocabularyMap.put(Hokkien, new ArrayList<>(Collections.singletonList(new Vocabulary("new", "sin", Hokkien))));
+        // Moves the first Hokkien vocabulary to Japanese, with the latest date_in.
+        vocabularyMap.put(Japanese, new ArrayList<>(Collections.singletonList(new Vocabulary("englishHokkien0", "foreignHokkien0", Japanese))));
+        vocabularyManager.upsertVocabulariesInDisk(vocabularyMap);
+
+        assertEquals(expected, new ArrayList<>(cursorList));
+    }
+
+    @Test
+    public void givenCursorList_whenGetSearchIndex_thenSameVocabulariesAsInMemoryListShouldBeMatched()
+    {
+        ArrayList<Vocabulary> expected = givenVocabulariesInDisk().get(Hokkien);
+        VocabularySearchIndex expectedIndex = CompactVocabularyList.copyOf(Hokkien, expected).getSearchIndex();
+
+        VocabularySearchIndex searchIndex = new VocabularyCursorList(dbHelperTest.getReadableDatabase(), Hokkien).getSearchIndex();
+
+        for(String searched : new String[] { "englishHokkien2", "EnglishHokkien1", "englishJapanese" })
+        {
+            assertArrayEquals(expectedIndex.search(searched, ENGLISH), searchIndex.search(searched, ENGLISH));
+        }
+        assertArrayEquals(expectedIndex.search("foreignhokkien24", FOREIGN), searchIndex.search("foreignhokkien24", FOREIGN));
+    }
+
+    @Test
+    public void givenEmptyDisk_whenGetPagedVocabulariesFromDisk_thenEmptyListShouldBeReturned()
+    {
+        assertTrue(vocabularyManager.getPagedVocabulariesFromDisk(Hokkien).isEmpty());
+    }
+
+    private EnumMap<ForeignLanguage, ArrayList<Vocabulary>> givenVocabulariesInDisk()
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = new EnumMap<>(ForeignLanguage.class);
+        vocabularyMap.put(Hokkien, givenVocabularies(Hokkien, HOKKIEN_COUNT));
+        vocabularyMap.put(Japanese, givenVocabularies(Japanese, WINDOW_SIZE));
+
+        vocabularyManager.replaceVocabulariesInDisk(vocabularyMap);
+
+        return vocabularyMap;
+    }
+
+    private ArrayList<Vocabulary> givenVocabularies(ForeignLanguage language, int count)
+    {
+        ArrayList<Vocabulary> list = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+        {
+            list.add(new Vocabulary("english" + language + i, "foreign" + language + i, language));
+        }
+
+        return list;
+    }
+}
@@ -5,17 +5,32 @@ import android.database.sqlite.SQLiteDatabase;
 
 import com.aaron.vocabulary.RobolectricTest;
 import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.SearchType;
+import com.aaron.vocabulary.bean.UpsertResult;
 import com.aaron.vocabulary.bean.Vocabulary;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneId;
 import org.threeten.bp.format.DateTimeFormatter;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.List;
+
+import io.reactivex.subscribers.TestSubscriber;
 
 import static com.aaron.vocabulary.bean.ForeignLanguage.Hokkien;
+import static com.aaron.vocabulary.bean.ForeignLanguage.Japanese;
+import static com.aaron.vocabulary.bean.SearchType.ENGLISH;
+import static com.aaron.vocabulary.bean.SearchType.FOREIGN;
 import static com.aaron.vocabulary.model.MySQLiteHelper.TABLE_VOCABULARY;
 import static com.aaron.vocabulary.model.VocabularyManager.DATE_FORMAT_DATABASE;
 import static com.aaron.vocabulary.model.VocabularyManager.DATE_FORMAT_WEB;
@@ -36,12 +51,18 @@ public class VocabularyManagerTest extends RobolectricTest
     @Before
     public void init()
     {
-        dbHelperTest = new MySQLiteHelper(getContext());
+        dbHelperTest = MySQLiteHelper.getInstance(getContext());
         vocabularyManager = new VocabularyManager(getContext());
         dateIn = LocalDateTime.now();
         vocabularyCountPerLanguage = nextInt(5, 10);
     }
 
+    @After
+    public void close()
+    {
+        dbHelperTest.close();
+    }
+
     @Test
     public void givenVocabularyMap_whenReplaceVocabulariesInDisk_thenVocabulariesShouldBeSavedToDatabase()
     {
@@ -53,6 +74,68 @@ public class VocabularyManagerTest extends RobolectricTest
         thenVocabulariesShouldBeSavedToDatabase(vocabularyMap);
     }
 
+    @Test
+    public void givenVocabulariesInDiskAndChangedVocabularyMap_whenUpsertVocabulariesInDisk_thenOnlyChangesShouldBeApplied()
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = givenVocabularyMap();
+        vocabularyManager.replaceVocabulariesInDisk(vocabularyMap);
+
+        ArrayList<Vocabulary> hokkienList = vocabularyMap.get(Hokkien);
+        Vocabulary untouched = hokkienList.get(0);
+        Vocabulary unchanged = hokkienList.get(1);
+        Vocabulary moved = hokkienList.get(2);
+        Vocabulary added = new Vocabulary(randomAlphabetic(6), randomAlphabetic(6), Hokkien);
+
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> changedMap = new EnumMap<>(ForeignLanguage.class);
+        changedMap.put(Hokkien, new ArrayList<>(Arrays.asList(unchanged, added)));
+        changedMap.put(Japanese, new ArrayList<>(Collections.singletonList(new Vocabulary(moved.getEnglishWord(), moved.getForeignWord(), Japanese))));
+
+        UpsertResult result = vocabularyManager.upsertVocabulariesInDisk(changedMap);
+
+        assertEquals(1, result.getInsertedCount());
+        assertEquals(1, result.getUpdatedCount());
+        assertEquals(1, result.getUnchangedCount());
+
+        ArrayList<Vocabulary> hokkienFromDisk = vocabularyManager.getVocabulariesFromDisk(Hokkien);
+        assertTrue(hokkienFromDisk.contains(untouched));
+        assertTrue(hokkienFromDisk.contains(unchanged));
+        assertTrue(hokkienFromDisk.contains(added));
+        assertFalse(hokkienFromDisk.contains(moved));
+        assertTrue(vocabularyManager.getVocabulariesFromDisk(Japanese).contains(new Vocabulary(moved.getEnglishWord(), moved.getForeignWord(), Japanese)));
+    }
+
+    @Test
+    public void givenVocabulariesJson_whenUpsertVocabulariesFromJson_thenVocabulariesOfKnownLanguagesShouldBeSaved() throws IOException
+    {
+        String json = "{\"recently_added_count\": 3, \"languages\": {" +
+                "\"Hokkien\": [{\"english_word\": \"bad\", \"foreign_word\": \"pháiⁿ\", \"date_in\": \"2018-05-08\"}, " +
+                "{\"english_word\": \"boss\", \"foreign_word\": \"thâu-ke\"}], " +
+                "\"Klingon\": [{\"english_word\": \"success\", \"foreign_word\": \"Qapla'\"}], " +
+                "\"Japanese\": [{\"english_word\": \"water\", \"foreign_word\": \"mizu\"}]}}";
+
+        UpsertResult result = vocabularyManager.upsertVocabulariesFromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.getInsertedCount());
+        assertEquals(Arrays.asList(new Vocabulary("bad", "pháiⁿ", Hokkien), new Vocabulary("boss", "thâu-ke", Hokkien)),
+                vocabularyManager.getVocabulariesFromDisk(Hokkien));
+        assertEquals(Collections.singletonList(new Vocabulary("water", "mizu", Japanese)), vocabularyManager.getVocabulariesFromDisk(Japanese));
+    }
+
+    @Test(expected = IOException.class)
+    public void givenTruncatedVocabulariesJson_whenUpsertVocabulariesFromJson_thenNothingShouldBeSaved() throws IOException
+    {
+        String json = "{\"languages\": {\"Hokkien\": [{\"english_word\": \"bad\", \"foreign_word\": \"pháiⁿ\"}, {\"english_wo";
+
+        try
+        {
+            vocabularyManager.upsertVocabulariesFromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        }
+        finally
+        {
+            assertTrue(vocabularyManager.getVocabulariesFromDisk(Hokkien).isEmpty());
+        }
+    }
+
     /**
      * Note: Long method names throws "SQLiteCantOpenDatabaseException: Cannot open SQLite connection" while using Robolectric context.
      * - Max 118 characters.
@@ -69,6 +152,38 @@ public class VocabularyManagerTest extends RobolectricTest
         vocabulariesFromDisk.forEach(vocabulary -> assertEquals(Hokkien, vocabulary.getForeignLanguage()));
     }
 
+    @Test
+    public void givenVocabulariesInDisk_whenSearchPagedVocabulariesInEnglish_thenEnglishSubWordMatchesShouldBeReturned()
+    {
+        givenSearchableVocabulariesInDisk();
+
+        assertEquals(Arrays.asList("below / beneath / bottom / underneath", "boss / employer / master"), searchVocabularies("bo", ENGLISH, 0));
+        assertEquals(Collections.singletonList("below / beneath / bottom / underneath"), searchVocabularies("under", ENGLISH, 0));
+        assertEquals(Collections.emptyList(), searchVocabularies("neath", ENGLISH, 0));
+        assertEquals(Arrays.asList("below / beneath / bottom / underneath", "boss / employer / master"), searchVocabularies("Bo", ENGLISH, 0));
+    }
+
+    @Test
+    public void givenVocabulariesInDisk_whenSearchPagedVocabulariesInForeign_thenForeignWordMatchesShouldBeReturned()
+    {
+        givenSearchableVocabulariesInDisk();
+
+        assertEquals(Arrays.asList("pháiⁿ", "pháiⁿ khoàⁿ"), searchVocabularies("phá", FOREIGN, 1));
+        assertEquals(Collections.singletonList("tē-bīn / ē-tóe"), searchVocabularies("tē-b", FOREIGN, 1));
+        assertEquals(Collections.emptyList(), searchVocabularies("khoàⁿ", FOREIGN, 1));
+    }
+
+    @Test
+    public void givenVocabulariesInDisk_whenSearchPagedVocabulariesWithoutDiacritics_thenWordsWithDiacriticsShouldBeReturned()
+    {
+        givenSearchableVocabulariesInDisk();
+
+        assertEquals(Arrays.asList("pháiⁿ", "pháiⁿ khoàⁿ"), searchVocabularies("Pha", FOREIGN, 1));
+        assertEquals(Arrays.asList("pháiⁿ", "pháiⁿ khoàⁿ"), searchVocabularies("phain", FOREIGN, 1));
+        assertEquals(Collections.singletonList("tē-bīn / ē-tóe"), searchVocabularies("te-bi", FOREIGN, 1));
+        assertEquals(Collections.singletonList("boss / employer / master"), searchVocabularies("thau", FOREIGN, 0));
+    }
+
     @Test
     public void givenVocabulariesInDisk_whenGetVocabulariesCount_thenVocabulariesCountGroupByForeignLanguagesFromDiskShouldBeReturned()
     {
@@ -108,6 +223,38 @@ public class VocabularyManagerTest extends RobolectricTest
         thenVocabulariesFromDiskAreDeleted();
     }
 
+    @Test
+    public void givenVocabulariesInDisk_whenDeleteVocabulariesFromDisk_thenVocabulariesCountAndLastUpdatedShouldBeReset()
+    {
+        givenVocabulariesOfEachForeignLanguageInDisk();
+
+        vocabularyManager.deleteVocabulariesFromDisk();
+
+        vocabularyManager.getVocabulariesCount().forEach((foreignLanguage, count) -> assertEquals(0, count.intValue()));
+        assertEquals(DEFAULT_LAST_UPDATED, vocabularyManager.getLastUpdated(DATE_FORMAT_WEB));
+    }
+
+    @Test
+    public void givenObservedVocabulariesCount_whenVocabulariesUpserted_thenCountShouldOnlyBeEmittedAgainWhenChanged()
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = new EnumMap<>(ForeignLanguage.class);
+        vocabularyMap.put(Hokkien, new ArrayList<>(Collections.singletonList(new Vocabulary("bad", "pháiⁿ", Hokkien))));
+        vocabularyManager.replaceVocabulariesInDisk(vocabularyMap);
+
+        TestSubscriber<EnumMap<ForeignLanguage, Integer>> subscriber = vocabularyManager.observeVocabulariesCount().test();
+        subscriber.awaitCount(1);
+
+        vocabularyManager.upsertVocabulariesInDisk(vocabularyMap);
+        vocabularyMap.get(Hokkien).add(new Vocabulary("boss", "thâu-ke", Hokkien));
+        vocabularyManager.upsertVocabulariesInDisk(vocabularyMap);
+        subscriber.awaitCount(2);
+
+        subscriber.assertValueCount(2);
+        assertEquals(1, subscriber.values().get(0).get(Hokkien).intValue());
+        assertEquals(2, subscriber.values().get(1).get(Hokkien).intValue());
+        subscriber.dispose();
+    }
+
     private EnumMap<ForeignLanguage, ArrayList<Vocabulary>> givenVocabularyMap()
     {
         EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = new EnumMap<>(ForeignLanguage.class);
@@ -132,21 +279,44 @@ public class VocabularyManagerTest extends RobolectricTest
     {
         EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = givenVocabularyMap();
 
-        try(SQLiteDatabase db = dbHelperTest.getWritableDatabase())
+        SQLiteDatabase db = dbHelperTest.getWritableDatabase();
+        for(ArrayList<Vocabulary> vocabularies : vocabularyMap.values())
         {
-            for(ArrayList<Vocabulary> vocabularies : vocabularyMap.values())
+            for(Vocabulary vocabulary : vocabularies)
             {
-                for(Vocabulary vocabulary : vocabularies)
-                {
-                    String sql = String.format("INSERT INTO %s(english_word, foreign_word, foreign_language, date_in) VALUES('%s', '%s', '%s', '%s')",
-                            TABLE_VOCABULARY, vocabulary.getEnglishWord(), vocabulary.getForeignWord(), vocabulary.getForeignLanguage(),
-                            dateIn.format(DateTimeFormatter.ofPattern(DATE_FORMAT_DATABASE)));
-                    db.execSQL(sql);
-                }
+                String sql = String.format("INSERT INTO %s(english_word, foreign_word, foreign_language_id, date_in) VALUES('%s', '%s', %d, %d)",
+                        TABLE_VOCABULARY, vocabulary.getEnglishWord(), vocabulary.getForeignWord(), vocabulary.getForeignLanguage().getId(),
+                        dateIn.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                db.execSQL(sql);
             }
         }
     }
 
+    private void givenSearchableVocabulariesInDisk()
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = new EnumMap<>(ForeignLanguage.class);
+        vocabularyMap.put(Hokkien, new ArrayList<>(Arrays.asList(
+                new Vocabulary("bad", "pháiⁿ", Hokkien),
+                new Vocabulary("below / beneath / bottom / underneath", "tē-bīn / ē-tóe", Hokkien),
+                new Vocabulary("boss / employer / master", "thâu-ke", Hokkien),
+                new Vocabulary("ugly", "pháiⁿ khoàⁿ", Hokkien))));
+        vocabularyMap.put(Japanese, new ArrayList<>(Collections.singletonList(new Vocabulary("boss", "shachō", Japanese))));
+
+        vocabularyManager.replaceVocabulariesInDisk(vocabularyMap);
+    }
+
+    private List<String> searchVocabularies(String searched, SearchType searchType, int column)
+    {
+        VocabularyList list = vocabularyManager.getPagedVocabulariesFromDisk(Hokkien);
+        List<String> words = new ArrayList<>();
+        for(int index : list.getSearchIndex().search(searched, searchType))
+        {
+            words.add(column == 0 ? list.getEnglishWord(index) : list.getForeignWord(index));
+        }
+
+        return words;
+    }
+
     private void thenVocabulariesShouldBeSavedToDatabase(EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap)
     {
         vocabularyMap.forEach(this::assertVocabulariesInDatabaseIsEqualToGivenVocabularies);
@@ -166,12 +336,10 @@ public class VocabularyManagerTest extends RobolectricTest
 
     private void thenVocabulariesFromDiskAreDeleted()
     {
-        try(SQLiteDatabase db = dbHelperTest.getReadableDatabase())
+        SQLiteDatabase db = dbHelperTest.getReadableDatabase();
+        try(Cursor cursor = db.rawQuery(String.format("SELECT * FROM %s", TABLE_VOCABULARY), null))
         {
-            try(Cursor cursor = db.rawQuery(String.format("SELECT * FROM %s", TABLE_VOCABULARY), null))
-            {
-                assertEquals(0, cursor.getCount());
-            }
+            assertEquals(0, cursor.getCount());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.aaron.vocabulary.model;
+
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.aaron.vocabulary.bean.ForeignLanguage.Hokkien;
+import static com.aaron.vocabulary.bean.SearchType.ENGLISH;
+import static com.aaron.vocabulary.bean.SearchType.FOREIGN;
+import static org.junit.Assert.assertArrayEquals;
+
+public class VocabularySearchIndexTest
+{
+    private final VocabularySearchIndex searchIndex = CompactVocabularyList.copyOf(Hokkien, Arrays.asList(
+            new Vocabulary("ugly", "pháiⁿ khoàⁿ", Hokkien),
+            new Vocabulary("below / beneath / bottom / underneath", "tē-bīn / ē-tóe", Hokkien),
+            new Vocabulary("boss / employer / master", "thâu-ke", Hokkien),
+            new Vocabulary("bad", "pháiⁿ", Hokkien),
+            new Vocabulary("beat / hit / strike", "phah", Hokkien))).getSearchIndex();
+
+    @Test
+    public void givenEnglishPrefix_whenSearch_thenVocabulariesWithMatchingSubWordShouldBeReturnedOnceInListOrder()
+    {
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, searchIndex.search("b", ENGLISH));
+        assertArrayEquals(new int[] { 1, 4 }, searchIndex.search("be", ENGLISH));
+        assertArrayEquals(new int[] { 1 }, searchIndex.search("under", ENGLISH));
+        assertArrayEquals(new int[] { 2 }, searchIndex.search("master", ENGLISH));
+    }
+
+    @Test
+    public void givenForeignPrefix_whenSearch_thenVocabulariesWithForeignWordStartingWithPrefixShouldBeReturned()
+    {
+        assertArrayEquals(new int[] { 0, 3 }, searchIndex.search("pháiⁿ", FOREIGN));
+        assertArrayEquals(new int[] { 0, 3, 4 }, searchIndex.search("ph", FOREIGN));
+        assertArrayEquals(new int[0], searchIndex.search("ē-tóe", FOREIGN));
+    }
+
+    @Test
+    public void givenPreviousResult_whenSearchExtendedOrOtherPrefix_thenSameVocabulariesAsNewSearchShouldBeReturned()
+    {
+        VocabularySearchIndex.Result result = searchIndex.search("b", ENGLISH, null);
+
+        result = searchIndex.search("be", ENGLISH, result);
+        assertArrayEquals(new int[] { 1, 4 }, result.getIndexes());
+
+        result = searchIndex.search("bea", ENGLISH, result);
+        assertArrayEquals(new int[] { 4 }, result.getIndexes());
+
+        result = searchIndex.search("bo", ENGLISH, result);
+        assertArrayEquals(new int[] { 1, 2 }, result.getIndexes());
+
+        result = searchIndex.search("bot", FOREIGN, result);
+        assertArrayEquals(new int[0], result.getIndexes());
+    }
+
+    @Test
+    public void givenPrefixWithOtherCaseOrWithoutDiacritics_whenSearch_thenSameVocabulariesShouldBeReturned()
+    {
+        assertArrayEquals(new int[] { 1, 4 }, searchIndex.search("BE", ENGLISH));
+        assertArrayEquals(new int[] { 0, 3 }, searchIndex.search("phai", FOREIGN));
+        assertArrayEquals(new int[] { 0, 3 }, searchIndex.search("phain", FOREIGN));
+        assertArrayEquals(new int[] { 0 }, searchIndex.search("phain khoan", FOREIGN));
+        assertArrayEquals(new int[] { 2 }, searchIndex.search("Tháu", FOREIGN));
+    }
+
+    @Test
+    public void givenUnknownPrefix_whenSearch_thenNoVocabularyShouldBeReturned()
+    {
+        assertArrayEquals(new int[0], searchIndex.search("zebra", ENGLISH));
+        assertArrayEquals(new int[0], searchIndex.search("master / ", ENGLISH));
+    }
+}
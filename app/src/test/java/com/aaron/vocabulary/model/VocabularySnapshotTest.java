@@ -0,0 +1,189 @@
+package com.aaron.vocabulary.model;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.aaron.vocabulary.RobolectricTest;
+import com.aaron.vocabulary.bean.ForeignLanguage;
+import com.aaron.vocabulary.bean.Vocabulary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+
+import static com.aaron.vocabulary.bean.ForeignLanguage.Hokkien;
+import static com.aaron.vocabulary.bean.ForeignLanguage.Japanese;
+import static com.aaron.vocabulary.bean.SearchType.ENGLISH;
+import static com.aaron.vocabulary.bean.SearchType.FOREIGN;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VocabularySnapshotTest extends RobolectricTest
+{
+    private MySQLiteHelper dbHelperTest;
+    private VocabularyManager vocabularyManager;
+    private File snapshotFile;
+
+    @Before
+    public void init()
+    {
+        dbHelperTest = MySQLiteHelper.getInstance(getContext());
+        vocabularyManager = new VocabularyManager(getContext());
+        snapshotFile = new File(getContext().getCacheDir(), "snapshot_test.bin");
+    }
+
+    @After
+    public void close()
+    {
+        dbHelperTest.close();
+        VocabularyManager.invalidateCache();
+    }
+
+    @Test
+    public void givenVocabulariesInDisk_whenWriteAndOpenSnapshot_thenVocabulariesOfForeignLangShouldBeReturnedInOrder() throws IOException
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = givenVocabulariesInDisk();
+        SQLiteDatabase db = dbHelperTest.getReadableDatabase();
+
+        assertTrue(VocabularySnapshot.write(db, Hokkien, snapshotFile));
+        VocabularySnapshot snapshot = VocabularySnapshot.open(db, Hokkien, snapshotFile);
+
+        assertEquals(vocabularyMap.get(Hokkien), new ArrayList<>(snapshot));
+        assertEquals(vocabularyManager.getVocabulariesFromDisk(Hokkien), new ArrayList<>(snapshot));
+
+        VocabularyCursorList cursorList = new VocabularyCursorList(db, Hokkien);
+        for(int i = 0; i < snapshot.size(); i++)
+        {
+            assertEquals(cursorList.getId(i), snapshot.getId(i));
+        }
+    }
+
+    @Test
+    public void givenSnapshot_whenGetSearchIndex_thenSameVocabulariesAsInMemoryListShouldBeMatched() throws IOException
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = givenVocabulariesInDisk();
+        SQLiteDatabase db = dbHelperTest.getReadableDatabase();
+        VocabularySnapshot.write(db, Hokkien, snapshotFile);
+        VocabularySnapshot snapshot = VocabularySnapshot.open(db, Hokkien, snapshotFile);
+        long memorySize = snapshot.getMemorySize();
+
+        VocabularySearchIndex expectedIndex = CompactVocabularyList.copyOf(Hokkien, vocabularyMap.get(Hokkien)).getSearchIndex();
+        VocabularySearchIndex searchIndex = snapshot.getSearchIndex();
+
+        for(String searched : new String[] { "b", "be", "beneath", "underneath", "ugly", "z" })
+        {
+            assertArrayEquals(expectedIndex.search(searched, ENGLISH), searchIndex.search(searched, ENGLISH));
+        }
+        for(String searched : new String[] { "phain", "PHÁIⁿ K", "te", "e-toe" })
+        {
+            assertArrayEquals(expectedIndex.search(searched, FOREIGN), searchIndex.search(searched, FOREIGN));
+        }
+        assertEquals(memorySize, snapshot.getMemorySize());
+        assertTrue(memorySize > snapshotFile.length());
+    }
+
+    @Test
+    public void givenSnapshotAndVocabulariesAddedInDisk_whenOpenSnapshot_thenOutOfDateSnapshotShouldNotBeOpened() throws IOException
+    {
+        givenVocabulariesInDisk();
+        SQLiteDatabase db = dbHelperTest.getReadableDatabase();
+        VocabularySnapshot.write(db, Hokkien, snapshotFile);
+
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> addedMap = new EnumMap<>(ForeignLanguage.class);
+        addedMap.put(Hokkien, new ArrayList<>(Collections.singletonList(new Vocabulary("boss", "thâu-ke", Hokkien))));
+        vocabularyManager.upsertVocabulariesInDisk(addedMap);
+
+        assertNull(VocabularySnapshot.open(db, Hokkien, snapshotFile));
+    }
+
+    @Test
+    public void givenInvalidSnapshotFile_whenOpenSnapshot_thenSnapshotShouldNotBeOpened() throws IOException
+    {
+        givenVocabulariesInDisk();
+        try(FileOutputStream out = new FileOutputStream(snapshotFile))
+        {
+            out.write(new byte[] { 1, 2, 3 });
+        }
+
+        assertNull(VocabularySnapshot.open(dbHelperTest.getReadableDatabase(), Hokkien, snapshotFile));
+    }
+
+    @Test
+    public void givenSnapshotInDisk_whenGetPagedVocabulariesFromDiskTwice_thenCachedSnapshotShouldBeReturned()
+    {
+        givenVocabulariesInDisk();
+        VocabularyManager.invalidateCache();
+        vocabularyManager.writeVocabularySnapshots();
+        int hitCount = VocabularyManager.getCacheHitCount();
+        int missCount = VocabularyManager.getCacheMissCount();
+
+        VocabularyList list = vocabularyManager.getPagedVocabulariesFromDisk(Hokkien);
+
+        assertSame(list, vocabularyManager.getPagedVocabulariesFromDisk(Hokkien));
+        assertEquals(hitCount + 1, VocabularyManager.getCacheHitCount());
+        assertEquals(missCount + 1, VocabularyManager.getCacheMissCount());
+    }
+
+    @Test
+    public void givenCachedSnapshot_whenDeleteVocabulariesFromDisk_thenCachedSnapshotShouldNotBeReturned()
+    {
+        givenVocabulariesInDisk();
+        vocabularyManager.writeVocabularySnapshots();
+        vocabularyManager.getPagedVocabulariesFromDisk(Hokkien);
+
+        vocabularyManager.deleteVocabulariesFromDisk();
+
+        assertTrue(vocabularyManager.getPagedVocabulariesFromDisk(Hokkien).isEmpty());
+    }
+
+    @Test
+    public void givenVocabulariesInDisk_whenVocabulariesUpserted_thenUpToDateSnapshotShouldBeReturned()
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = givenVocabulariesInDisk();
+        Vocabulary added = new Vocabulary("boss", "thâu-ke", Hokkien);
+        vocabularyMap.get(Hokkien).add(added);
+
+        vocabularyManager.upsertVocabulariesInDisk(new EnumMap<>(Collections.singletonMap(Hokkien, new ArrayList<>(Collections.singletonList(added)))));
+        VocabularyList list = vocabularyManager.getPagedVocabulariesFromDisk(Hokkien);
+
+        assertTrue(list instanceof VocabularySnapshot);
+        assertEquals(vocabularyMap.get(Hokkien), new ArrayList<>(list));
+    }
+
+    @Test
+    public void givenVocabulariesInDisk_whenPrefetchVocabularies_thenOtherForeignLangShouldBeReturnedFromCache()
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = givenVocabulariesInDisk();
+        int hitCount = VocabularyManager.getCacheHitCount();
+
+        vocabularyManager.prefetchVocabularies(Hokkien);
+        VocabularyList list = vocabularyManager.getPagedVocabulariesFromDisk(Japanese);
+
+        assertEquals(hitCount + 1, VocabularyManager.getCacheHitCount());
+        assertEquals(vocabularyMap.get(Japanese), new ArrayList<>(list));
+    }
+
+    private EnumMap<ForeignLanguage, ArrayList<Vocabulary>> givenVocabulariesInDisk()
+    {
+        EnumMap<ForeignLanguage, ArrayList<Vocabulary>> vocabularyMap = new EnumMap<>(ForeignLanguage.class);
+        vocabularyMap.put(Hokkien, new ArrayList<>(Arrays.asList(
+                new Vocabulary("bad", "pháiⁿ", Hokkien),
+                new Vocabulary("below / beneath / bottom / underneath", "tē-bīn / ē-tóe", Hokkien),
+                new Vocabulary("ugly", "pháiⁿ khoàⁿ", Hokkien))));
+        vocabularyMap.put(Japanese, new ArrayList<>(Collections.singletonList(new Vocabulary("water", "mizu", Japanese))));
+
+        vocabularyManager.replaceVocabulariesInDisk(vocabularyMap);
+
+        return vocabularyMap;
+    }
+}